@@ -0,0 +1,35 @@
+package tree;
+/**
+ * A node of the {@code AVLTree}; a {@code BSTNode} which also remembers the 
+ * height of the subtree it is the root of, so the tree never has to walk a 
+ * subtree to learn how tall it is. A new node is a leaf, and so has a height of 0.
+ * 
+ * @author Jesus R Mendoza
+ * @param <E> specified object type this node can hold
+ * @see AVLTree
+ */
+public class AVLNode<E extends Comparable<E>> extends BSTNode<E>
+{
+    /**
+     * The height of the subtree rooted at this node.
+     */
+    protected int height = 0;
+    
+    /**
+     * Constructs a new {@code AVLNode}, a leaf, containing the specified data.
+     * 
+     * @param dataIn the data which this node will hold
+     */
+    public AVLNode(E dataIn) {
+        super(dataIn);
+    }
+    
+    /**
+     * Retrieves the cached height of the subtree rooted at this node.
+     * 
+     * @return the height of this node
+     */
+    public int getHeight() {
+        return height;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,220 @@
+package tree;
+
+import java.util.Comparator;
+
+/**
+ * A {@code BinarySearchTree} which keeps itself balanced by making sure that,
+ * for every node, the heights of its left and right subtrees differ by at most
+ * one. Each node caches its own height, which is refreshed by the rotations 
+ * performed on the way back up from every insertion and deletion; as a result
+ * {@code height} is answered in constant time and the tree is never taller 
+ * than about 1.44 log(n), a tighter bound than that of a {@code RedBlackTree}.
+ * 
+ * @author Jesus R Mendoza
+ * @param <E> specified object type this tree can hold
+ * @see AVLNode
+ */
+public class AVLTree<E extends Comparable<E>> extends BinarySearchTree<E>
+{
+    /**
+     * Constructs a new and empty {@code AVLTree}.
+     */
+    public AVLTree() {
+        super();
+    }
+    
+    /**
+     * Constructs a new and empty {@code AVLTree} whose values are ordered by the
+     * given comparator instead of their natural ordering.
+     * 
+     * @param cmp the comparator used to order the values, or {@code null} to use
+     *            their natural ordering
+     */
+    public AVLTree(Comparator<? super E> cmp) {
+        super(cmp);
+    }
+    
+    /**
+     * Constructs a new {@code AVLTree} and populates its nodes with the
+     * values provided in the array
+     * 
+     * @param elems the provided array to populate the tree with
+     */
+    public AVLTree(E[] elems) {
+        super(elems);
+    }
+    
+    /**
+     * Rebalances every node on the path from a node, inserted in the same 
+     * place a {@code BinarySearchTree} would, back up to the root.
+     * 
+     * @param node the node which was just inserted
+     */
+    @Override
+    protected void inserted(BSTNode<E> node) {
+        retrace(node.parent);
+    }
+    
+    /**
+     * Deletes the node which holds the given value. A node with two children 
+     * takes the value of the maximum of its left subtree, which is removed
+     * instead; every node from the removed node's parent up to the root is 
+     * then rebalanced.
+     * 
+     * @param key the value to be deleted
+     */
+    @Override
+    public void delete(E key) {
+        BSTNode<E> node = deletionPoint(key);
+        if(node == null || dropCopy(node))
+            return;
+        if(numChildren(node) == 2) {
+            BSTNode<E> max = maxLeftSubTree(node);
+            replaceData(node, max);
+            node = max;
+        }
+        
+        BSTNode<E> par = node.parent;
+        if(isLeaf(node))
+            deleteLeafNode(node);
+        else
+            deleteNodeWith1Child(node);
+        retrace(par);
+    }
+    
+    /**
+     * Creates a new {@code AVLNode}, a leaf, holding the given value.
+     * 
+     * @param key the value the node will hold
+     * @return    the new node
+     */
+    @Override
+    protected BSTNode<E> newNode(E key) {
+        return new AVLNode<>(key);
+    }
+    
+    /**
+     * Builds a balanced subtree as a {@code BinarySearchTree} does, caching the
+     * height of each node once both of its subtrees have been built.
+     * 
+     * @param keys the sorted values
+     * @param lo   the index of the first value in the range
+     * @param hi   the index of the last value in the range
+     * @param par  the node that will be the parent of the subtree's root
+     * @return     the root of the subtree, or {@code null} if the range is empty
+     */
+    @Override
+    protected BSTNode<E> build(E[] keys, int lo, int hi, BSTNode<E> par) {
+        BSTNode<E> node = super.build(keys, lo, hi, par);
+        if(node != null)
+            updateHeight(node);
+        return node;
+    }
+    
+    /**
+     * Recomputes the size and the height of a node restored from a snapshot,
+     * once both of its subtrees have been restored.
+     * 
+     * @param node the node whose subtree was restored
+     */
+    @Override
+    protected void restored(BSTNode<E> node) {
+        super.restored(node);
+        updateHeight(node);
+    }
+    
+    /**
+     * Walks from the given node up to the root, refreshing each node's height 
+     * and rotating wherever the two subtrees of a node differ in height by more 
+     * than one.
+     * 
+     * @param node the lowest node whose subtree may have changed
+     */
+    private void retrace(BSTNode<E> node) {
+        while(node != null) {
+            updateHeight(node);
+            int bal = balance(node);
+            if(bal > 1) {
+                if(balance(node.left) < 0)
+                    rotateLeft(node.left);
+                rotateRight(node);
+                node = node.parent;
+            }
+            else if(bal < -1) {
+                if(balance(node.right) > 0)
+                    rotateRight(node.right);
+                rotateLeft(node);
+                node = node.parent;
+            }
+            node = node.parent;
+        }
+    }
+    
+    /**
+     * Rotates to the left as a {@code BinarySearchTree} does, and then refreshes
+     * the heights of the two nodes that moved.
+     * 
+     * @param node the node to rotate down to the left, must have a right child
+     */
+    @Override
+    protected void rotateLeft(BSTNode<E> node) {
+        super.rotateLeft(node);
+        updateHeight(node);
+        updateHeight(node.parent);
+    }
+    
+    /**
+     * Rotates to the right as a {@code BinarySearchTree} does, and then refreshes
+     * the heights of the two nodes that moved.
+     * 
+     * @param node the node to rotate down to the right, must have a left child
+     */
+    @Override
+    protected void rotateRight(BSTNode<E> node) {
+        super.rotateRight(node);
+        updateHeight(node);
+        updateHeight(node.parent);
+    }
+    
+    /**
+     * Returns the cached height of the given node's subtree, without walking it.
+     * 
+     * @param node the node whose height will be retrieved
+     * @return     the height of the given node
+     */
+    @Override
+    public int height(BSTNode<E> node) {
+        return ((AVLNode<E>) node).height;
+    }
+    
+    /**
+     * Calculates the balance factor of the given node; the height of its left 
+     * subtree minus the height of its right subtree.
+     * 
+     * @param node the node whose balance factor will be calculated
+     * @return     the balance factor, between -1 and 1 once the tree is balanced
+     */
+    public int balance(BSTNode<E> node) {
+        return heightOf(node.left) - heightOf(node.right);
+    }
+    
+    /**
+     * Recomputes the cached height of the given node from those of its children.
+     * 
+     * @param node the node whose height will be refreshed
+     */
+    private void updateHeight(BSTNode<E> node) {
+        ((AVLNode<E>) node).height = 1 + Math.max(heightOf(node.left), heightOf(node.right));
+    }
+    
+    /**
+     * Returns the cached height of the given node, where a missing child has a 
+     * height of -1.
+     * 
+     * @param node the node whose height will be retrieved, may be {@code null}
+     * @return     the height of the given node
+     */
+    private int heightOf(BSTNode<E> node) {
+        return (node == null) ? -1 : ((AVLNode<E>) node).height;
+    }
+}
\ No newline at end of file
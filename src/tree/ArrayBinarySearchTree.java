@@ -0,0 +1,421 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A binary search tree, like {@code BinarySearchTree}, which keeps its nodes in
+ * parallel arrays instead of in separate {@code BSTNode} objects. Every node is
+ * a slot, an index into the arrays, which holds the node's data along with the 
+ * slots of its parent, its left child and its right child; a missing node is the
+ * slot {@code NIL}. Slots freed by {@code delete} are chained together into a 
+ * free list and reused by later insertions, so a tree of n values costs a 
+ * handful of arrays rather than n objects, and neighboring nodes tend to sit 
+ * next to each other in memory.
+ * 
+ * Since there are no node objects to hand out, the traversals return the values
+ * themselves in the order they are visited.
+ * 
+ * @author Jesus R Mendoza
+ * @param <E> specified object type this tree can hold
+ * @see BinarySearchTree
+ */
+public class ArrayBinarySearchTree<E extends Comparable<E>>
+{
+    /**
+     * The slot which stands for a missing node.
+     */
+    private static final int NIL = -1;
+    
+    /**
+     * The number of slots a tree starts out with, unless told otherwise.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+    
+    /**
+     * The data held by the node in each slot.
+     */
+    private Object[] data;
+    
+    /**
+     * The slot of the left child of the node in each slot; for a free slot, the
+     * next free slot in the free list.
+     */
+    private int[] left;
+    
+    /**
+     * The slot of the right child of the node in each slot.
+     */
+    private int[] right;
+    
+    /**
+     * The slot of the parent of the node in each slot.
+     */
+    private int[] parent;
+    
+    /**
+     * The slot of the top most node of this tree.
+     */
+    private int root = NIL;
+    
+    /**
+     * The first slot of the free list.
+     */
+    private int free = NIL;
+    
+    /**
+     * The number of slots that have ever been handed out; every slot past this 
+     * one has never been used.
+     */
+    private int used = 0;
+    
+    /**
+     * The number of values in this tree.
+     */
+    private int size = 0;
+    
+    /**
+     * Constructs a new and empty {@code ArrayBinarySearchTree}.
+     */
+    public ArrayBinarySearchTree() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructs a new and empty {@code ArrayBinarySearchTree} with room for the
+     * given number of values before its arrays have to grow.
+     * 
+     * @param capacity the number of values to make room for
+     */
+    public ArrayBinarySearchTree(int capacity) {
+        capacity = Math.max(capacity, 1);
+        data = new Object[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        parent = new int[capacity];
+    }
+    
+    /**
+     * Constructs a new {@code ArrayBinarySearchTree} and populates its nodes with
+     * the values provided in the array
+     * 
+     * @param elems the provided array to populate the tree with
+     */
+    public ArrayBinarySearchTree(E[] elems) {
+        this(elems.length);
+        for(E elem : elems)
+            insert(elem);
+    }
+    
+    /**
+     * Inserts a given value based on whether it is greater than or less than the
+     * values already in the tree. If the given value already exists then a 
+     * {@code DuplicateItemExceptionBST} is thrown.
+     * 
+     * @param key the value to be inserted
+     */
+    public void insert(E key) {
+        int par = NIL;
+        int curr = root;
+        int cmp = 0;
+        while(curr != NIL) {
+            cmp = key.compareTo(get(curr));
+            if(cmp == 0)
+                throw new DuplicateItemExceptionBST();
+            par = curr;
+            curr = (cmp < 0) ? left[curr] : right[curr];
+        }
+        
+        int child = allocate(key);
+        parent[child] = par;
+        if(par == NIL)
+            root = child;
+        else if(cmp < 0)
+            left[par] = child;
+        else
+            right[par] = child;
+        size++;
+    }
+    
+    /**
+     * Deletes the node which holds the given value, if there is one. A node with
+     * two children takes the value of the maximum of its left subtree, and the
+     * node where that maximum was found is removed instead.
+     * 
+     * @param key the value to be deleted
+     */
+    public void delete(E key) {
+        int node = search(key);
+        if(node == NIL)
+            return;
+        if(left[node] != NIL && right[node] != NIL) {
+            int max = left[node];
+            while(right[max] != NIL)
+                max = right[max];
+            data[node] = data[max];
+            node = max;
+        }
+        
+        int child = (left[node] != NIL) ? left[node] : right[node];
+        int par = parent[node];
+        if(child != NIL)
+            parent[child] = par;
+        if(par == NIL)
+            root = child;
+        else if(left[par] == node)
+            left[par] = child;
+        else
+            right[par] = child;
+        release(node);
+        size--;
+    }
+    
+    /**
+     * Searches the tree and returns true if the given value is found (already
+     * contained in this tree) or false if it is not.
+     * 
+     * @param key the value to be checked
+     * @return    true if the tree contains the value given
+     */
+    public boolean find(E key) {
+        return search(key) != NIL;
+    }
+    
+    /**
+     * Finds the slot of the node holding the given value.
+     * 
+     * @param key the value to look for
+     * @return    the slot holding the value, or {@code NIL} if there is none
+     */
+    private int search(E key) {
+        int curr = root;
+        while(curr != NIL) {
+            int cmp = key.compareTo(get(curr));
+            if(cmp == 0)
+                return curr;
+            curr = (cmp < 0) ? left[curr] : right[curr];
+        }
+        return NIL;
+    }
+    
+    /**
+     * Returns the number of values in this tree.
+     * 
+     * @return the number of values in this tree
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Checks whether this tree is empty (has no existing nodes).
+     * 
+     * @return true if the tree is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return root == NIL;
+    }
+    
+    /**
+     * Calculates how many levels tall this tree is, from the root all the way to
+     * its deepest leaf; an empty tree has a height of -1.
+     * 
+     * @return the height of this tree
+     */
+    public int height() {
+        int h = -1;
+        int[] depth = new int[size];
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+        if(root != NIL)
+            queue[tail++] = root;
+        while(head < tail) {
+            int curr = queue[head];
+            h = Math.max(h, depth[head++]);
+            if(left[curr] != NIL) {
+                depth[tail] = depth[head - 1] + 1;
+                queue[tail++] = left[curr];
+            }
+            if(right[curr] != NIL) {
+                depth[tail] = depth[head - 1] + 1;
+                queue[tail++] = right[curr];
+            }
+        }
+        return h;
+    }
+    
+    /**
+     * Returns an {@code ArrayList} of the values in this tree, ordered by the 
+     * {@code preorder} traversal algorithm (i.e. visiting the first node, then 
+     * its left child, and then its right child).
+     * 
+     * @return the ordered ArrayList
+     */
+    public ArrayList<E> preorder() {
+        ArrayList<E> arr = new ArrayList<>(size);
+        int[] stk = new int[size];
+        int top = 0;
+        if(root != NIL)
+            stk[top++] = root;
+        while(top > 0) {
+            int curr = stk[--top];
+            arr.add(get(curr));
+            if(right[curr] != NIL)
+                stk[top++] = right[curr];
+            if(left[curr] != NIL)
+                stk[top++] = left[curr];
+        }
+        return arr;
+    }
+    
+    /**
+     * Returns an {@code ArrayList} of the values in this tree, ordered by the 
+     * {@code inorder} traversal algorithm (i.e. visiting the left child, then 
+     * the actual node, and then its right child).
+     * 
+     * @return the ordered ArrayList
+     */
+    public ArrayList<E> inorder() {
+        ArrayList<E> arr = new ArrayList<>(size);
+        int[] stk = new int[size];
+        int top = 0;
+        int curr = root;
+        while(top > 0 || curr != NIL) {
+            if(curr != NIL) {
+                stk[top++] = curr;
+                curr = left[curr];
+            }
+            else {
+                curr = stk[--top];
+                arr.add(get(curr));
+                curr = right[curr];
+            }
+        }
+        return arr;
+    }
+    
+    /**
+     * Returns an {@code ArrayList} of the values in this tree, ordered by the 
+     * {@code postorder} traversal algorithm (i.e. visiting the left child, then
+     * the right child, and then the actual node).
+     * 
+     * @return the ordered ArrayList
+     */
+    public ArrayList<E> postorder() {
+        int[] order = new int[size];
+        int n = 0;
+        int[] stk = new int[size];
+        int top = 0;
+        if(root != NIL)
+            stk[top++] = root;
+        while(top > 0) {
+            int curr = stk[--top];
+            order[n++] = curr;
+            if(left[curr] != NIL)
+                stk[top++] = left[curr];
+            if(right[curr] != NIL)
+                stk[top++] = right[curr];
+        }
+        
+        ArrayList<E> arr = new ArrayList<>(size);
+        while(n > 0)
+            arr.add(get(order[--n]));
+        return arr;
+    }
+    
+    /**
+     * Returns an {@code ArrayList} of the values in this tree, ordered by the 
+     * {@code breadthfirst} traversal algorithm (i.e. visiting each node from 
+     * left to right for each level of the tree).
+     * 
+     * @return the ordered ArrayList
+     */
+    public ArrayList<E> breadthfirst() {
+        ArrayList<E> arr = new ArrayList<>(size);
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+        if(root != NIL)
+            queue[tail++] = root;
+        while(head < tail) {
+            int curr = queue[head++];
+            arr.add(get(curr));
+            if(left[curr] != NIL)
+                queue[tail++] = left[curr];
+            if(right[curr] != NIL)
+                queue[tail++] = right[curr];
+        }
+        return arr;
+    }
+    
+    /**
+     * Returns the number of slots ever handed out; since freed slots are 
+     * reused first, it is the most values this tree has held at once.
+     * 
+     * @return the number of slots in use or on the free list
+     */
+    int slotsUsed() {
+        return used;
+    }
+    
+    /**
+     * Hands out a slot for a new leaf holding the given value, reusing a freed 
+     * slot if there is one and growing the arrays if every slot is taken.
+     * 
+     * @param key the value the new node will hold
+     * @return    the slot of the new node
+     */
+    private int allocate(E key) {
+        int slot;
+        if(free != NIL) {
+            slot = free;
+            free = left[slot];
+        }
+        else {
+            if(used == data.length)
+                grow();
+            slot = used++;
+        }
+        data[slot] = key;
+        left[slot] = NIL;
+        right[slot] = NIL;
+        return slot;
+    }
+    
+    /**
+     * Returns the given slot to the free list, dropping the reference to the 
+     * data it held so it can be collected by the java GC.
+     * 
+     * @param slot the slot to be freed
+     */
+    private void release(int slot) {
+        data[slot] = null;
+        right[slot] = NIL;
+        parent[slot] = NIL;
+        left[slot] = free;
+        free = slot;
+    }
+    
+    /**
+     * Doubles the number of slots in each of the arrays.
+     */
+    private void grow() {
+        int capacity = data.length * 2;
+        data = Arrays.copyOf(data, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+    }
+    
+    /**
+     * Retrieves the data held by the node in the given slot.
+     * 
+     * @param slot the slot of the node
+     * @return     the data which that node holds
+     */
+    @SuppressWarnings("unchecked")
+    private E get(int slot) {
+        return (E) data[slot];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,660 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import stack.ArrayQueue;
+import stack.Stack;
+
+/**
+ * A B+ tree: a search tree whose nodes each hold up to {@code fanOut - 1}
+ * values in a sorted array, so that it is only about log n / log fanOut levels
+ * tall rather than log n, and a search reads a few wide nodes, each of them
+ * contiguous in memory, instead of one node per comparison. Every value is
+ * kept in a leaf; the internal nodes only hold copies of values to route
+ * searches to the right child. The leaves are linked in ascending order, so
+ * {@code inorder}, the iterator and {@code range} walk arrays from one leaf to
+ * the next without going back up the tree. The other traversals,
+ * {@code preorder}, {@code postorder} and {@code breadthfirst}, return the
+ * nodes themselves, as those of {@code BinarySearchTree} do.
+ *
+ * Every node but the root is kept at least half full: a node which overflows
+ * is split in two, and a node which falls below half full borrows a value from
+ * a sibling or is merged with it. All leaves are at the same depth.
+ *
+ * @author Jesus R Mendoza
+ * @param <E> specified object type this tree can hold
+ * @see BTreeNode
+ * @see BinarySearchTree
+ */
+public class BPlusTree<E extends Comparable<E>> implements Iterable<E>
+{
+    /**
+     * The fan-out of a tree, unless told otherwise; 64 references make a node
+     * span a handful of cache lines.
+     */
+    private static final int DEFAULT_FAN_OUT = 64;
+
+    /**
+     * The top most node of this tree; a leaf while the tree fits in one node.
+     */
+    protected BTreeNode<E> root;
+
+    /**
+     * The comparator used to order the values of this tree, or {@code null} if
+     * they are ordered by their natural ordering.
+     */
+    protected final Comparator<? super E> comparator;
+
+    /**
+     * The most values a node may hold, and the fewest any node but the root
+     * may hold.
+     */
+    private final int maxKeys;
+    private final int minKeys;
+
+    /**
+     * The number of values in this tree, and the number of levels below the
+     * root.
+     */
+    private int size = 0;
+    private int height = 0;
+
+    /**
+     * What an insertion into a subtree which did not split returns.
+     */
+    private final Split<E> unsplit = new Split<>(null, null);
+
+    /**
+     * The node split off a node which overflowed, and the value which
+     * separates it from the node it was split from.
+     */
+    private static final class Split<E extends Comparable<E>> {
+        final E key;
+        final BTreeNode<E> right;
+
+        Split(E key, BTreeNode<E> right) {
+            this.key = key;
+            this.right = right;
+        }
+    }
+
+    /**
+     * Constructs a new and empty {@code BPlusTree} with the default fan-out.
+     */
+    public BPlusTree() {
+        this(DEFAULT_FAN_OUT);
+    }
+
+    /**
+     * Constructs a new and empty {@code BPlusTree} with the given fan-out.
+     *
+     * @param fanOut the most children an internal node may have
+     * @throws IllegalArgumentException if the fan-out is less than 3
+     */
+    public BPlusTree(int fanOut) {
+        this(fanOut, null);
+    }
+
+    /**
+     * Constructs a new and empty {@code BPlusTree} with the given fan-out,
+     * whose values are ordered by the given comparator.
+     *
+     * @param fanOut the most children an internal node may have
+     * @param cmp    the comparator used to order the values, or {@code null}
+     *               to use their natural ordering
+     * @throws IllegalArgumentException if the fan-out is less than 3
+     */
+    public BPlusTree(int fanOut, Comparator<? super E> cmp) {
+        if(fanOut < 3)
+            throw new IllegalArgumentException("Fan-out: " + fanOut);
+        maxKeys = fanOut - 1;
+        minKeys = maxKeys / 2;
+        comparator = cmp;
+        root = new BTreeNode<>(maxKeys, true);
+    }
+
+    /**
+     * Constructs a {@code BPlusTree} with the default fan-out, populated with
+     * the values provided in the array.
+     *
+     * @param elems the provided array to populate the tree with
+     */
+    public BPlusTree(E[] elems) {
+        this();
+        for(E elem : elems)
+            insert(elem);
+    }
+
+    private int compare(E a, E b) {
+        return (comparator == null) ? a.compareTo(b) : comparator.compare(a, b);
+    }
+
+    /**
+     * Searches the values of a node for the given value.
+     *
+     * @return the index of the value if the node holds it, and otherwise
+     *         {@code -(i + 1)} where i is the index it would be inserted at
+     */
+    private int search(BTreeNode<E> node, E key) {
+        int lo = 0;
+        int hi = node.count - 1;
+        while(lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compare(node.getKey(mid), key);
+            if(cmp < 0)
+                lo = mid + 1;
+            else if(cmp > 0)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        return -(lo + 1);
+    }
+
+    /**
+     * Turns the result of {@code search} on an internal node into the index
+     * of the child whose subtree the value belongs in.
+     */
+    private static int childIndex(int found) {
+        return (found >= 0) ? found + 1 : -(found + 1);
+    }
+
+    /**
+     * Checks whether the given value is in this tree.
+     *
+     * @param key the value to be searched for
+     * @return    true if the value is in this tree
+     */
+    public boolean find(E key) {
+        BTreeNode<E> node = root;
+        while(!node.isLeaf())
+            node = node.children[childIndex(search(node, key))];
+        return search(node, key) >= 0;
+    }
+
+    /**
+     * Inserts the given value; if the given value already exists a
+     * {@code DuplicateItemExceptionBST} is thrown.
+     *
+     * @param key the value to be inserted
+     */
+    public void insert(E key) {
+        if(!add(key))
+            throw new DuplicateItemExceptionBST();
+    }
+
+    /**
+     * Inserts the given value into its leaf, splitting every node on the way
+     * back up which overflows; when the root splits the tree grows a level.
+     *
+     * @param key the value to be inserted
+     * @return    true if the value was inserted, false if it already existed
+     */
+    public boolean add(E key) {
+        Split<E> split = insert(root, key);
+        if(split == null)
+            return false;
+        if(split != unsplit) {
+            BTreeNode<E> top = new BTreeNode<>(maxKeys, false);
+            top.keys[0] = split.key;
+            top.children[0] = root;
+            top.children[1] = split.right;
+            top.count = 1;
+            root = top;
+            height++;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Inserts the given value into the given subtree.
+     *
+     * @return {@code null} if the value was already in the subtree, the split
+     *         if the subtree's root overflowed and was split, and otherwise
+     *         {@code unsplit}
+     */
+    private Split<E> insert(BTreeNode<E> node, E key) {
+        int i = search(node, key);
+        if(node.isLeaf()) {
+            if(i >= 0)
+                return null;
+            insertAt(node.keys, node.count, -(i + 1), key);
+            node.count++;
+            return (node.count > maxKeys) ? splitLeaf(node) : unsplit;
+        }
+
+        int c = childIndex(i);
+        Split<E> split = insert(node.children[c], key);
+        if(split == null || split == unsplit)
+            return split;
+        insertAt(node.keys, node.count, c, split.key);
+        insertAt(node.children, node.count + 1, c + 1, split.right);
+        node.count++;
+        return (node.count > maxKeys) ? splitInternal(node) : unsplit;
+    }
+
+    /**
+     * Moves the upper half of an overflowing leaf into a new leaf after it; the
+     * new leaf's smallest value separates the two.
+     */
+    private Split<E> splitLeaf(BTreeNode<E> node) {
+        BTreeNode<E> right = new BTreeNode<>(maxKeys, true);
+        int mid = (node.count + 1) / 2;
+        right.count = node.count - mid;
+        System.arraycopy(node.keys, mid, right.keys, 0, right.count);
+        clear(node.keys, mid, node.count);
+        node.count = mid;
+        right.next = node.next;
+        node.next = right;
+        return new Split<>(right.getKey(0), right);
+    }
+
+    /**
+     * Moves the upper half of an overflowing internal node into a new node; the
+     * middle value moves up to separate the two.
+     */
+    private Split<E> splitInternal(BTreeNode<E> node) {
+        BTreeNode<E> right = new BTreeNode<>(maxKeys, false);
+        int mid = node.count / 2;
+        E separator = node.getKey(mid);
+        right.count = node.count - mid - 1;
+        System.arraycopy(node.keys, mid + 1, right.keys, 0, right.count);
+        System.arraycopy(node.children, mid + 1, right.children, 0, right.count + 1);
+        clear(node.keys, mid, node.count);
+        clear(node.children, mid + 1, node.count + 1);
+        node.count = mid;
+        return new Split<>(separator, right);
+    }
+
+    /**
+     * Deletes the given value from its leaf, and then, on the way back up,
+     * refills every node which fell below half full from a sibling; when the
+     * root is left with a single child the tree shrinks a level.
+     *
+     * @param key the value to be deleted
+     * @return    true if the value was deleted, false if it was not in the tree
+     */
+    public boolean delete(E key) {
+        if(!delete(root, key))
+            return false;
+        if(!root.isLeaf() && root.count == 0) {
+            root = root.children[0];
+            height--;
+        }
+        size--;
+        return true;
+    }
+
+    private boolean delete(BTreeNode<E> node, E key) {
+        int i = search(node, key);
+        if(node.isLeaf()) {
+            if(i < 0)
+                return false;
+            removeAt(node.keys, node.count, i);
+            node.count--;
+            return true;
+        }
+
+        int c = childIndex(i);
+        BTreeNode<E> child = node.children[c];
+        if(!delete(child, key))
+            return false;
+        if(child.count < minKeys)
+            rebalance(node, c);
+        return true;
+    }
+
+    /**
+     * Refills the c-th child of the given node, which fell below half full, by
+     * borrowing a value from a sibling which can spare one, or else by merging
+     * it with a sibling.
+     */
+    private void rebalance(BTreeNode<E> parent, int c) {
+        BTreeNode<E> child = parent.children[c];
+        BTreeNode<E> left = (c > 0) ? parent.children[c - 1] : null;
+        BTreeNode<E> right = (c < parent.count) ? parent.children[c + 1] : null;
+        if(left != null && left.count > minKeys)
+            borrowFromLeft(parent, c, left, child);
+        else if(right != null && right.count > minKeys)
+            borrowFromRight(parent, c, child, right);
+        else if(left != null)
+            merge(parent, c - 1, left, child);
+        else
+            merge(parent, c, child, right);
+    }
+
+    private void borrowFromLeft(BTreeNode<E> parent, int c, BTreeNode<E> left, BTreeNode<E> child) {
+        if(child.isLeaf()) {
+            insertAt(child.keys, child.count, 0, left.keys[left.count - 1]);
+            parent.keys[c - 1] = child.keys[0];
+        }
+        else {
+            insertAt(child.keys, child.count, 0, parent.keys[c - 1]);
+            insertAt(child.children, child.count + 1, 0, left.children[left.count]);
+            parent.keys[c - 1] = left.keys[left.count - 1];
+            left.children[left.count] = null;
+        }
+        left.keys[left.count - 1] = null;
+        left.count--;
+        child.count++;
+    }
+
+    private void borrowFromRight(BTreeNode<E> parent, int c, BTreeNode<E> child, BTreeNode<E> right) {
+        if(child.isLeaf()) {
+            child.keys[child.count] = right.keys[0];
+            removeAt(right.keys, right.count, 0);
+            parent.keys[c] = right.keys[0];
+        }
+        else {
+            child.keys[child.count] = parent.keys[c];
+            child.children[child.count + 1] = right.children[0];
+            parent.keys[c] = right.keys[0];
+            removeAt(right.keys, right.count, 0);
+            removeAt(right.children, right.count + 1, 0);
+        }
+        right.count--;
+        child.count++;
+    }
+
+    /**
+     * Merges the (k + 1)-th child of the given node into the k-th one, and
+     * removes the value separating them from the node.
+     */
+    private void merge(BTreeNode<E> parent, int k, BTreeNode<E> left, BTreeNode<E> right) {
+        if(left.isLeaf()) {
+            System.arraycopy(right.keys, 0, left.keys, left.count, right.count);
+            left.count += right.count;
+            left.next = right.next;
+        }
+        else {
+            left.keys[left.count] = parent.keys[k];
+            System.arraycopy(right.keys, 0, left.keys, left.count + 1, right.count);
+            System.arraycopy(right.children, 0, left.children, left.count + 1, right.count + 1);
+            left.count += right.count + 1;
+        }
+        removeAt(parent.keys, parent.count, k);
+        removeAt(parent.children, parent.count + 1, k + 1);
+        parent.count--;
+    }
+
+    private static void insertAt(Object[] arr, int length, int i, Object value) {
+        System.arraycopy(arr, i, arr, i + 1, length - i);
+        arr[i] = value;
+    }
+
+    private static void removeAt(Object[] arr, int length, int i) {
+        System.arraycopy(arr, i + 1, arr, i, length - i - 1);
+        arr[length - 1] = null;
+    }
+
+    private static void clear(Object[] arr, int from, int to) {
+        for(int i = from; i < to; i++)
+            arr[i] = null;
+    }
+
+    /**
+     * Returns the number of values in this tree.
+     *
+     * @return the number of values in this tree
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether this tree is empty.
+     *
+     * @return true if this tree holds no values
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of levels below the root; every leaf is that deep.
+     *
+     * @return the height of this tree
+     */
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Returns the smallest value of this tree.
+     *
+     * @return the smallest value, or {@code null} if this tree is empty
+     */
+    public E min() {
+        BTreeNode<E> node = root;
+        while(!node.isLeaf())
+            node = node.children[0];
+        return (node.count == 0) ? null : node.getKey(0);
+    }
+
+    /**
+     * Returns the greatest value of this tree.
+     *
+     * @return the greatest value, or {@code null} if this tree is empty
+     */
+    public E max() {
+        return lastOf(root);
+    }
+
+    private E lastOf(BTreeNode<E> node) {
+        while(!node.isLeaf())
+            node = node.children[node.count];
+        return (node.count == 0) ? null : node.getKey(node.count - 1);
+    }
+
+    /**
+     * Returns the greatest value of this tree which is less than or equal to
+     * the given value. The descent remembers the subtree just left of the
+     * path, whose greatest value is the answer if the leaf has none.
+     *
+     * @param key the value to be looked for
+     * @return    the greatest value at most the given one, or {@code null} if
+     *            there is none
+     */
+    public E floor(E key) {
+        BTreeNode<E> node = root;
+        BTreeNode<E> before = null;
+        while(!node.isLeaf()) {
+            int c = childIndex(search(node, key));
+            if(c > 0)
+                before = node.children[c - 1];
+            node = node.children[c];
+        }
+        int i = search(node, key);
+        if(i >= 0)
+            return node.getKey(i);
+        i = -(i + 1);
+        if(i > 0)
+            return node.getKey(i - 1);
+        return (before == null) ? null : lastOf(before);
+    }
+
+    /**
+     * Returns the smallest value of this tree which is greater than or equal
+     * to the given value; if the leaf has none, it is the first value of the
+     * next leaf.
+     *
+     * @param key the value to be looked for
+     * @return    the smallest value at least the given one, or {@code null} if
+     *            there is none
+     */
+    public E ceiling(E key) {
+        BTreeNode<E> node = leafFor(key);
+        int i = search(node, key);
+        if(i < 0)
+            i = -(i + 1);
+        if(i < node.count)
+            return node.getKey(i);
+        return (node.next == null) ? null : node.next.getKey(0);
+    }
+
+    private BTreeNode<E> leafFor(E key) {
+        BTreeNode<E> node = root;
+        while(!node.isLeaf())
+            node = node.children[childIndex(search(node, key))];
+        return node;
+    }
+
+    /**
+     * Returns an {@code ArrayList} of the values of this tree in ascending
+     * order, read leaf by leaf.
+     *
+     * @return the values in ascending order
+     */
+    public ArrayList<E> inorder() {
+        ArrayList<E> arr = new ArrayList<>(size);
+        for(E value : this)
+            arr.add(value);
+        return arr;
+    }
+
+    /**
+     * Returns an {@code ArrayList} of the nodes of this tree ordered by the
+     * {@code preorder} traversal algorithm (i.e. visiting a node, and then
+     * each of its children's subtrees from left to right).
+     *
+     * @return the ordered ArrayList
+     */
+    public ArrayList<BTreeNode<E>> preorder() {
+        ArrayList<BTreeNode<E>> arr = new ArrayList<>();
+        Stack<BTreeNode<E>> stk = new Stack<>();
+        stk.push(root);
+        while(!stk.isEmpty()) {
+            BTreeNode<E> curr = stk.pop();
+            arr.add(curr);
+            if(!curr.isLeaf())
+                for(int c = curr.count; c >= 0; c--)
+                    stk.push(curr.children[c]);
+        }
+        return arr;
+    }
+
+    /**
+     * Returns an {@code ArrayList} of the nodes of this tree ordered by the
+     * {@code postorder} traversal algorithm (i.e. visiting each of a node's
+     * children's subtrees from left to right, and then the node itself). The
+     * nodes are collected root first with the children pushed from left to
+     * right, which visits them in exactly the reverse order.
+     *
+     * @return the ordered ArrayList
+     */
+    public ArrayList<BTreeNode<E>> postorder() {
+        ArrayList<BTreeNode<E>> order = new ArrayList<>();
+        Stack<BTreeNode<E>> stk = new Stack<>();
+        stk.push(root);
+        while(!stk.isEmpty()) {
+            BTreeNode<E> curr = stk.pop();
+            order.add(curr);
+            if(!curr.isLeaf())
+                for(int c = 0; c <= curr.count; c++)
+                    stk.push(curr.children[c]);
+        }
+
+        ArrayList<BTreeNode<E>> arr = new ArrayList<>(order.size());
+        for(int i = order.size() - 1; i >= 0; i--)
+            arr.add(order.get(i));
+        return arr;
+    }
+
+    /**
+     * Returns an {@code ArrayList} of the nodes of this tree ordered by the
+     * {@code breadthfirst} traversal algorithm (i.e. visiting each node from
+     * left to right for each level of the tree); the last level holds the
+     * leaves, in the order of their links.
+     *
+     * @return the ordered ArrayList
+     */
+    public ArrayList<BTreeNode<E>> breadthfirst() {
+        ArrayList<BTreeNode<E>> arr = new ArrayList<>();
+        ArrayQueue<BTreeNode<E>> q = new ArrayQueue<>();
+        q.enqueue(root);
+        while(!q.isEmpty()) {
+            BTreeNode<E> curr = q.dequeue();
+            arr.add(curr);
+            if(!curr.isLeaf())
+                for(int c = 0; c <= curr.count; c++)
+                    q.enqueue(curr.children[c]);
+        }
+        return arr;
+    }
+
+    /**
+     * Returns the values of this tree which are at least {@code lo} and less
+     * than {@code hi}, in ascending order; one descent finds the first of
+     * them, and the rest are read leaf by leaf.
+     *
+     * @param lo the smallest value returned
+     * @param hi the value above every value returned
+     * @return   a lazy view of the values in the range
+     * @throws   IllegalArgumentException if {@code lo} is greater than {@code hi}
+     */
+    public Iterable<E> range(E lo, E hi) {
+        if(compare(lo, hi) > 0)
+            throw new IllegalArgumentException("lo > hi");
+        return () -> {
+            BTreeNode<E> leaf = leafFor(lo);
+            int i = search(leaf, lo);
+            return new LeafIterator(leaf, (i >= 0) ? i : -(i + 1), hi);
+        };
+    }
+
+    /**
+     * Returns an iterator over the values of this tree in ascending order.
+     *
+     * @return an iterator over the values of this tree
+     */
+    @Override
+    public Iterator<E> iterator() {
+        BTreeNode<E> node = root;
+        while(!node.isLeaf())
+            node = node.children[0];
+        return new LeafIterator(node, 0, null);
+    }
+
+    /**
+     * Walks the values of the leaves from a given position, following the
+     * links between leaves, up to an optional exclusive bound.
+     */
+    private class LeafIterator implements Iterator<E> {
+        private BTreeNode<E> leaf;
+        private int i;
+        private final E hi;
+
+        LeafIterator(BTreeNode<E> leaf, int i, E hi) {
+            this.leaf = leaf;
+            this.i = i;
+            this.hi = hi;
+            skipExhausted();
+        }
+
+        private void skipExhausted() {
+            while(leaf != null && i >= leaf.count) {
+                leaf = leaf.next;
+                i = 0;
+            }
+            if(leaf != null && hi != null && compare(leaf.getKey(i), hi) >= 0)
+                leaf = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null;
+        }
+
+        @Override
+        public E next() {
+            if(leaf == null)
+                throw new NoSuchElementException();
+            E value = leaf.getKey(i++);
+            skipExhausted();
+            return value;
+        }
+    }
+}
\ No newline at end of file
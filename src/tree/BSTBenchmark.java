@@ -0,0 +1,412 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * A benchmark runner for the operations of {@code BinarySearchTree} and its
+ * balanced subclasses: {@code insert}, {@code find}, {@code delete}, the four
+ * traversals and the array constructor. Each combination of tree, key type, key
+ * distribution and size is warmed up before it is measured, and every run uses
+ * the same seed so the numbers can be compared between changes. Besides the
+ * time per operation, {@code find} also reports how many comparisons it made
+ * per lookup, counted with a wrapping {@code Comparator}.
+ *
+ * The benchmark is configured with {@code name=value} arguments, each value
+ * being a comma separated list, e.g.
+ * <pre>
+ *   java tree.BSTBenchmark trees=bst,rb,avl keys=Integer,String \
+ *        dists=random,sorted,reverse,zipfian sizes=1000,10000,100000
+ * </pre>
+ * Other arguments are {@code warmup} and {@code iterations}, the number of
+ * rounds run before and while measuring, and {@code ops} to restrict which
+ * operations are run. Sorted and reverse inputs make the unbalanced
+ * {@code BinarySearchTree} quadratic, so keep their sizes small for {@code bst}.
+ * The {@code frozen} operation runs the lookups of {@code find} on the tree's
+ * {@code freeze}d, Eytzinger ordered copy. The {@code ingest} operation adds
+ * every key and then every lookup key, half of all additions being
+ * duplicates, through the non-throwing {@code add}.
+ *
+ * @author Jesus R Mendoza
+ * @see BinarySearchTree
+ */
+public class BSTBenchmark {
+
+    //Format strings for the String.format() method.
+    private static final String HEADER = "%-5s %-8s %-8s %10s  %-12s %14s %10s%n";
+    private static final String ROW = "%-5s %-8s %-8s %10d  %-12s %14.1f %10s%n";
+
+    /**
+     * The seed every random number generator starts from.
+     */
+    private static final long SEED = 42L;
+
+    /**
+     * The skew of the zipfian distribution of lookups.
+     */
+    private static final double ZIPF_EXPONENT = 0.99;
+
+    /**
+     * Collects results so the JIT cannot throw the measured work away.
+     */
+    private static volatile long sink;
+
+    private String[] trees = {"bst", "rb", "avl"};
+    private String[] keyTypes = {"Integer", "String"};
+    private String[] dists = {"random", "sorted", "reverse", "zipfian"};
+    private int[] sizes = {1000, 10000};
+    private String[] ops = {"insert", "ingest", "array", "find", "frozen", "delete",
+                            "preorder", "inorder", "postorder", "breadthfirst"};
+    private int warmup = 5;
+    private int iterations = 10;
+
+    /**
+     * The number of comparisons made by the counting comparator so far.
+     */
+    private long comparisons = 0;
+
+    public static void main(String[] args) {
+        BSTBenchmark bench = new BSTBenchmark();
+        for (String arg : args) {
+            bench.configure(arg);
+        }
+        bench.run();
+    }
+
+    /**
+     * Applies a single {@code name=value} argument.
+     *
+     * @param arg the argument to apply
+     */
+    private void configure(String arg) {
+        int eq = arg.indexOf('=');
+        if (eq < 0) {
+            throw new IllegalArgumentException("Expected name=value but got: " + arg);
+        }
+        String name = arg.substring(0, eq);
+        String[] values = arg.substring(eq + 1).split(",");
+        switch (name) {
+            case "trees":      trees = values; break;
+            case "keys":       keyTypes = values; break;
+            case "dists":      dists = values; break;
+            case "ops":        ops = values; break;
+            case "sizes":      sizes = Arrays.stream(values).mapToInt(Integer::parseInt).toArray(); break;
+            case "warmup":     warmup = Integer.parseInt(values[0]); break;
+            case "iterations": iterations = Integer.parseInt(values[0]); break;
+            default: throw new IllegalArgumentException("Unknown argument: " + name);
+        }
+    }
+
+    /**
+     * Runs every configured combination and prints one row per operation.
+     */
+    public void run() {
+        System.out.printf(HEADER, "tree", "keys", "dist", "size", "op", "ns/op", "cmp/op");
+        for (String tree : trees) {
+            for (String keyType : keyTypes) {
+                for (String dist : dists) {
+                    for (int size : sizes) {
+                        if (keyType.equals("Integer")) {
+                            run(tree, keyType, dist, integerKeys(size));
+                        }
+                        else if (keyType.equals("String")) {
+                            run(tree, keyType, dist, stringKeys(size));
+                        }
+                        else {
+                            throw new IllegalArgumentException("Unknown key type: " + keyType);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs every configured operation for a single combination.
+     *
+     * @param tree    the kind of tree to benchmark
+     * @param keyType the name of the key type, for the report
+     * @param dist    the key distribution
+     * @param sorted  the distinct keys, in ascending order
+     */
+    private <E extends Comparable<E>> void run(String tree, String keyType, String dist, E[] sorted) {
+        int n = sorted.length;
+        E[] order = insertionOrder(sorted, dist);
+        E[] queries = lookups(sorted, dist);
+        E[] removals = shuffle(sorted.clone(), new Random(SEED + 1));
+
+        for (String op : ops) {
+            double nanos;
+            String cmp = "";
+            switch (op) {
+                case "insert":
+                    nanos = measure(() -> {
+                        BinarySearchTree<E> t = create(tree, null);
+                        for (E key : order) {
+                            t.insert(key);
+                        }
+                        sink += t.isEmpty() ? 0 : 1;
+                    }, null) / n;
+                    break;
+                case "ingest":
+                    nanos = measure(() -> {
+                        BinarySearchTree<E> t = create(tree, null);
+                        for (E key : order) {
+                            t.add(key);
+                        }
+                        for (E key : queries) {
+                            t.add(key);
+                        }
+                        sink += t.size();
+                    }, null) / (n + queries.length);
+                    break;
+                case "array":
+                    nanos = measure(() -> sink += create(tree, order).isEmpty() ? 0 : 1, null) / n;
+                    break;
+                case "find":
+                    BinarySearchTree<E> lookup = build(tree, order, null);
+                    nanos = measure(() -> {
+                        int hits = 0;
+                        for (E key : queries) {
+                            hits += lookup.find(key) ? 1 : 0;
+                        }
+                        sink += hits;
+                    }, null) / queries.length;
+                    cmp = String.format("%.2f", comparisonsPerFind(tree, order, queries));
+                    break;
+                case "frozen":
+                    FrozenTree<E> frozen = build(tree, order, null).freeze();
+                    nanos = measure(() -> {
+                        int hits = 0;
+                        for (E key : queries) {
+                            hits += frozen.find(key) ? 1 : 0;
+                        }
+                        sink += hits;
+                    }, null) / queries.length;
+                    break;
+                case "delete":
+                    Object[] fresh = new Object[1];
+                    nanos = measure(() -> {
+                        @SuppressWarnings("unchecked")
+                        BinarySearchTree<E> t = (BinarySearchTree<E>) fresh[0];
+                        for (E key : removals) {
+                            t.delete(key);
+                        }
+                        sink += t.isEmpty() ? 1 : 0;
+                    }, () -> fresh[0] = build(tree, order, null)) / n;
+                    break;
+                case "preorder":
+                case "inorder":
+                case "postorder":
+                case "breadthfirst":
+                    BinarySearchTree<E> walked = build(tree, order, null);
+                    nanos = measure(() -> sink += traverse(walked, op).size(), null) / n;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown operation: " + op);
+            }
+            System.out.printf(ROW, tree, keyType, dist, n, op, nanos, cmp);
+        }
+    }
+
+    /**
+     * Times the given work, returning the fastest of the measured rounds in
+     * nanoseconds; the setup, if any, runs untimed before every round.
+     *
+     * @param work  the work to be timed
+     * @param setup the work to run before each round, or {@code null}
+     * @return      the fastest round, in nanoseconds
+     */
+    private double measure(Runnable work, Runnable setup) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < warmup + iterations; i++) {
+            if (setup != null) {
+                setup.run();
+            }
+            long start = System.nanoTime();
+            work.run();
+            long elapsed = System.nanoTime() - start;
+            if (i >= warmup) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Counts the average number of comparisons a lookup makes, using a tree
+     * ordered by a comparator which counts how often it is called.
+     *
+     * @param tree    the kind of tree to build
+     * @param order   the keys, in insertion order
+     * @param queries the keys to look up
+     * @return        the average number of comparisons per lookup
+     */
+    private <E extends Comparable<E>> double comparisonsPerFind(String tree, E[] order, E[] queries) {
+        Comparator<E> counting = (a, b) -> {
+            comparisons++;
+            return a.compareTo(b);
+        };
+        BinarySearchTree<E> t = build(tree, order, counting);
+        comparisons = 0;
+        for (E key : queries) {
+            t.find(key);
+        }
+        return (double) comparisons / queries.length;
+    }
+
+    /**
+     * Creates an empty tree of the given kind, or one populated by its array
+     * constructor if values are given.
+     *
+     * @param tree  the kind of tree to create
+     * @param elems the values to populate the tree with, or {@code null}
+     * @return      the new tree
+     */
+    private <E extends Comparable<E>> BinarySearchTree<E> create(String tree, E[] elems) {
+        switch (tree) {
+            case "bst": return (elems == null) ? new BinarySearchTree<>() : new BinarySearchTree<>(elems);
+            case "rb":  return (elems == null) ? new RedBlackTree<>() : new RedBlackTree<>(elems);
+            case "avl": return (elems == null) ? new AVLTree<>() : new AVLTree<>(elems);
+            default: throw new IllegalArgumentException("Unknown tree: " + tree);
+        }
+    }
+
+    /**
+     * Builds a tree of the given kind by inserting the given values in order.
+     *
+     * @param tree  the kind of tree to build
+     * @param order the values, in insertion order
+     * @param cmp   the comparator of the tree, or {@code null}
+     * @return      the populated tree
+     */
+    private <E extends Comparable<E>> BinarySearchTree<E> build(String tree, E[] order, Comparator<E> cmp) {
+        BinarySearchTree<E> t;
+        switch (tree) {
+            case "bst": t = new BinarySearchTree<>(cmp); break;
+            case "rb":  t = new RedBlackTree<>(cmp); break;
+            case "avl": t = new AVLTree<>(cmp); break;
+            default: throw new IllegalArgumentException("Unknown tree: " + tree);
+        }
+        for (E key : order) {
+            t.insert(key);
+        }
+        return t;
+    }
+
+    /**
+     * Runs the traversal of the given name over the given tree.
+     *
+     * @param t  the tree to traverse
+     * @param op the name of the traversal
+     * @return   the visited nodes
+     */
+    private <E extends Comparable<E>> ArrayList<BSTNode<E>> traverse(BinarySearchTree<E> t, String op) {
+        switch (op) {
+            case "preorder":  return t.preorder();
+            case "inorder":   return t.inorder();
+            case "postorder": return t.postorder();
+            default:          return t.breadthfirst();
+        }
+    }
+
+    /**
+     * Orders the keys for insertion according to the given distribution; the
+     * zipfian distribution only skews the lookups, so it inserts randomly.
+     *
+     * @param sorted the distinct keys, in ascending order
+     * @param dist   the key distribution
+     * @return       the keys in insertion order
+     */
+    private <E> E[] insertionOrder(E[] sorted, String dist) {
+        E[] order = sorted.clone();
+        switch (dist) {
+            case "sorted":
+                break;
+            case "reverse":
+                for (int i = 0, j = order.length - 1; i < j; i++, j--) {
+                    E tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                }
+                break;
+            case "random":
+            case "zipfian":
+                shuffle(order, new Random(SEED));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown distribution: " + dist);
+        }
+        return order;
+    }
+
+    /**
+     * Picks as many keys to look up as there are keys; uniformly at random, or
+     * following a zipfian distribution over the ranks of the keys.
+     *
+     * @param sorted the distinct keys, in ascending order
+     * @param dist   the key distribution
+     * @return       the keys to look up
+     */
+    private <E> E[] lookups(E[] sorted, String dist) {
+        int n = sorted.length;
+        Random rand = new Random(SEED + 2);
+        E[] queries = sorted.clone();
+        if (dist.equals("zipfian")) {
+            double[] cdf = new double[n];
+            double total = 0;
+            for (int i = 0; i < n; i++) {
+                total += 1.0 / Math.pow(i + 1, ZIPF_EXPONENT);
+                cdf[i] = total;
+            }
+            //Spread the popular ranks over the key range instead of bunching them at the smallest keys.
+            E[] ranked = shuffle(sorted.clone(), new Random(SEED + 3));
+            for (int i = 0; i < n; i++) {
+                int rank = Arrays.binarySearch(cdf, rand.nextDouble() * total);
+                queries[i] = ranked[Math.min((rank < 0) ? -rank - 1 : rank, n - 1)];
+            }
+        }
+        else {
+            for (int i = 0; i < n; i++) {
+                queries[i] = sorted[rand.nextInt(n)];
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * Shuffles the given array in place.
+     *
+     * @param arr  the array to shuffle
+     * @param rand the source of randomness
+     * @return     the given array
+     */
+    private static <E> E[] shuffle(E[] arr, Random rand) {
+        for (int i = arr.length - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            E tmp = arr[i];
+            arr[i] = arr[j];
+            arr[j] = tmp;
+        }
+        return arr;
+    }
+
+    private static Integer[] integerKeys(int n) {
+        Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = i;
+        }
+        return keys;
+    }
+
+    //Long keys sharing a common prefix, so every comparison walks most of the string.
+    private static String[] stringKeys(int n) {
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = String.format("customer-account-%010d", i);
+        }
+        return keys;
+    }
+}
\ No newline at end of file
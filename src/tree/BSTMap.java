@@ -0,0 +1,682 @@
+package tree;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+/**
+ * A {@code NavigableMap} kept in a {@code RedBlackTree} whose nodes hold a value
+ * next to their key. Looking up a key is a single descent of the tree which
+ * lands on the node holding both the key and its value, so there is no need to
+ * keep a second index next to the tree.
+ *
+ * The maps returned by {@code subMap}, {@code headMap}, {@code tailMap} and
+ * {@code descendingMap} are views backed by the same tree; they only limit the
+ * keys they show to a range, and optionally walk them backwards.
+ *
+ * @author Jesus R Mendoza
+ * @param <K> specified type of the keys
+ * @param <V> specified type of the values
+ * @see MapNode
+ */
+public class BSTMap<K extends Comparable<K>, V> extends AbstractMap<K, V> implements NavigableMap<K, V>
+{
+    /**
+     * The tree holding the entries of this map, shared with all of its views.
+     */
+    private final Entries<K, V> tree;
+
+    /**
+     * Whether this map has no lower bound; if it does, {@code lo} and
+     * {@code loInclusive} describe it.
+     */
+    private final boolean fromStart;
+    private final K lo;
+    private final boolean loInclusive;
+
+    /**
+     * Whether this map has no upper bound; if it does, {@code hi} and
+     * {@code hiInclusive} describe it.
+     */
+    private final boolean toEnd;
+    private final K hi;
+    private final boolean hiInclusive;
+
+    /**
+     * Whether this map shows its keys in decreasing order.
+     */
+    private final boolean descending;
+
+    /**
+     * Constructs a new and empty {@code BSTMap} ordered by the natural ordering
+     * of its keys.
+     */
+    public BSTMap() {
+        this((Comparator<? super K>) null);
+    }
+
+    /**
+     * Constructs a new and empty {@code BSTMap} whose keys are ordered by the
+     * given comparator.
+     *
+     * @param cmp the comparator used to order the keys, or {@code null} to use
+     *            their natural ordering
+     */
+    public BSTMap(Comparator<? super K> cmp) {
+        this(new Entries<K, V>(cmp), true, null, false, true, null, false, false);
+    }
+
+    /**
+     * Constructs a view of the given tree limited to the given range.
+     */
+    private BSTMap(Entries<K, V> tree, boolean fromStart, K lo, boolean loInclusive,
+                   boolean toEnd, K hi, boolean hiInclusive, boolean descending) {
+        if(!fromStart && !toEnd && tree.compare(lo, hi) > 0)
+            throw new IllegalArgumentException("fromKey > toKey");
+        this.tree = tree;
+        this.fromStart = fromStart;
+        this.lo = lo;
+        this.loInclusive = loInclusive;
+        this.toEnd = toEnd;
+        this.hi = hi;
+        this.hiInclusive = hiInclusive;
+        this.descending = descending;
+    }
+
+    /**
+     * The tree behind a {@code BSTMap}; a {@code RedBlackTree} of keys whose
+     * nodes are {@code MapNode}s.
+     */
+    private static class Entries<K extends Comparable<K>, V> extends RedBlackTree<K> {
+
+        /**
+         * The node created by the most recent insertion.
+         */
+        private MapNode<K, V> created;
+
+        Entries(Comparator<? super K> cmp) {
+            super(cmp);
+        }
+
+        @Override
+        protected BSTNode<K> newNode(K key) {
+            created = new MapNode<>(key);
+            return created;
+        }
+
+        @Override
+        protected void replaceData(BSTNode<K> node, BSTNode<K> source) {
+            super.replaceData(node, source);
+            node(node).value = node(source).value;
+        }
+
+        /**
+         * Finds the node holding the given key, in a single descent.
+         */
+        MapNode<K, V> getNode(K key) {
+            return node(deletionPoint(key));
+        }
+
+        /**
+         * Finds the node holding the given key, inserting one if there is none,
+         * in a single descent.
+         */
+        MapNode<K, V> getOrAddNode(K key) {
+            BSTNode<K> existing = addNode(key);
+            return (existing != null) ? node(existing) : created;
+        }
+
+        @SuppressWarnings("unchecked")
+        MapNode<K, V> node(BSTNode<K> node) {
+            return (MapNode<K, V>) node;
+        }
+
+        void clear() {
+            root = null;
+        }
+    }
+
+    /*
+     * Bounds checks; the abs* methods below work in the ascending order of the
+     * tree no matter which way this map faces.
+     */
+
+    private boolean tooLow(K key) {
+        if(fromStart)
+            return false;
+        int c = tree.compare(key, lo);
+        return c < 0 || (c == 0 && !loInclusive);
+    }
+
+    private boolean tooHigh(K key) {
+        if(toEnd)
+            return false;
+        int c = tree.compare(key, hi);
+        return c > 0 || (c == 0 && !hiInclusive);
+    }
+
+    private boolean inRange(K key) {
+        return !tooLow(key) && !tooHigh(key);
+    }
+
+    private boolean inRange(K key, boolean inclusive) {
+        return inclusive ? inRange(key) : inClosedRange(key);
+    }
+
+    /**
+     * Checks a key against this view's bounds as if both were inclusive; an
+     * exclusive bound of a nested view may equal a bound of this one.
+     */
+    private boolean inClosedRange(K key) {
+        return (fromStart || tree.compare(key, lo) >= 0) && (toEnd || tree.compare(hi, key) >= 0);
+    }
+
+    private MapNode<K, V> checkHigh(BSTNode<K> node) {
+        return (node == null || tooHigh(node.getData())) ? null : tree.node(node);
+    }
+
+    private MapNode<K, V> checkLow(BSTNode<K> node) {
+        return (node == null || tooLow(node.getData())) ? null : tree.node(node);
+    }
+
+    private MapNode<K, V> absLowest() {
+        if(fromStart)
+            return checkHigh(tree.leftmost(tree.root));
+        return checkHigh(tree.ceilingNode(lo, loInclusive));
+    }
+
+    private MapNode<K, V> absHighest() {
+        if(toEnd)
+            return checkLow(tree.rightmost(tree.root));
+        return checkLow(tree.floorNode(hi, hiInclusive));
+    }
+
+    private MapNode<K, V> absCeiling(K key, boolean inclusive) {
+        if(tooLow(key))
+            return absLowest();
+        return checkHigh(tree.ceilingNode(key, inclusive));
+    }
+
+    private MapNode<K, V> absFloor(K key, boolean inclusive) {
+        if(tooHigh(key))
+            return absHighest();
+        return checkLow(tree.floorNode(key, inclusive));
+    }
+
+    private MapNode<K, V> first() {
+        return descending ? absHighest() : absLowest();
+    }
+
+    private MapNode<K, V> last() {
+        return descending ? absLowest() : absHighest();
+    }
+
+    private MapNode<K, V> lower(K key) {
+        return descending ? absCeiling(key, false) : absFloor(key, false);
+    }
+
+    private MapNode<K, V> floor(K key) {
+        return descending ? absCeiling(key, true) : absFloor(key, true);
+    }
+
+    private MapNode<K, V> ceiling(K key) {
+        return descending ? absFloor(key, true) : absCeiling(key, true);
+    }
+
+    private MapNode<K, V> higher(K key) {
+        return descending ? absFloor(key, false) : absCeiling(key, false);
+    }
+
+    private static <K, V> Map.Entry<K, V> snapshot(MapNode<?, V> node, K key) {
+        return (node == null) ? null : new AbstractMap.SimpleImmutableEntry<>(key, node.value);
+    }
+
+    private static <K extends Comparable<K>, V> Map.Entry<K, V> snapshot(MapNode<K, V> node) {
+        return (node == null) ? null : new AbstractMap.SimpleImmutableEntry<>(node.getKey(), node.value);
+    }
+
+    private static <K extends Comparable<K>> K keyOf(MapNode<K, ?> node) {
+        return (node == null) ? null : node.getKey();
+    }
+
+    private static <K extends Comparable<K>> K keyOrThrow(MapNode<K, ?> node) {
+        if(node == null)
+            throw new NoSuchElementException();
+        return node.getKey();
+    }
+
+    @SuppressWarnings("unchecked")
+    private K cast(Object key) {
+        return (K) key;
+    }
+
+    /*
+     * Map
+     */
+
+    /**
+     * Returns the value associated with the given key, found in a single
+     * descent of the tree.
+     *
+     * @param key the key whose value will be returned
+     * @return    the value associated with the key, or {@code null} if there is none
+     */
+    @Override
+    public V get(Object key) {
+        K k = cast(key);
+        if(!inRange(k))
+            return null;
+        MapNode<K, V> node = tree.getNode(k);
+        return (node == null) ? null : node.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        K k = cast(key);
+        return inRange(k) && tree.getNode(k) != null;
+    }
+
+    /**
+     * Associates the given value with the given key, replacing any value the
+     * key had before.
+     *
+     * @param key   the key
+     * @param value the value to associate with the key
+     * @return      the previous value of the key, or {@code null} if it had none
+     * @throws      IllegalArgumentException if the key is outside this view's range
+     */
+    @Override
+    public V put(K key, V value) {
+        if(!inRange(key))
+            throw new IllegalArgumentException("key out of range");
+        return tree.getOrAddNode(key).setValue(value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        K k = cast(key);
+        if(!inRange(k))
+            return null;
+        MapNode<K, V> node = tree.getNode(k);
+        if(node == null)
+            return null;
+        V old = node.value;
+        tree.delete(k);
+        return old;
+    }
+
+    /**
+     * Returns the number of entries in this map; a view with bounds counts its
+     * entries from the ranks of its bounds, in O(log n) time.
+     *
+     * @return the number of entries in this map
+     */
+    @Override
+    public int size() {
+        int below = fromStart ? 0 : tree.rank(lo) + (loInclusive ? 0 : present(lo));
+        int upTo = toEnd ? tree.size() : tree.rank(hi) + (hiInclusive ? present(hi) : 0);
+        return Math.max(0, upTo - below);
+    }
+
+    private int present(K key) {
+        return tree.find(key) ? 1 : 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return first() == null;
+    }
+
+    @Override
+    public void clear() {
+        if(fromStart && toEnd)
+            tree.clear();
+        else
+            super.clear();
+    }
+
+    /*
+     * SortedMap
+     */
+
+    @Override
+    public Comparator<? super K> comparator() {
+        Comparator<? super K> cmp = tree.comparator;
+        if(!descending)
+            return cmp;
+        return (cmp == null) ? Collections.reverseOrder() : Collections.reverseOrder(cmp);
+    }
+
+    @Override
+    public K firstKey() {
+        return keyOrThrow(first());
+    }
+
+    @Override
+    public K lastKey() {
+        return keyOrThrow(last());
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    /*
+     * NavigableMap
+     */
+
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key) { return snapshot(lower(key)); }
+
+    @Override
+    public K lowerKey(K key) { return keyOf(lower(key)); }
+
+    @Override
+    public Map.Entry<K, V> floorEntry(K key) { return snapshot(floor(key)); }
+
+    @Override
+    public K floorKey(K key) { return keyOf(floor(key)); }
+
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K key) { return snapshot(ceiling(key)); }
+
+    @Override
+    public K ceilingKey(K key) { return keyOf(ceiling(key)); }
+
+    @Override
+    public Map.Entry<K, V> higherEntry(K key) { return snapshot(higher(key)); }
+
+    @Override
+    public K higherKey(K key) { return keyOf(higher(key)); }
+
+    @Override
+    public Map.Entry<K, V> firstEntry() { return snapshot(first()); }
+
+    @Override
+    public Map.Entry<K, V> lastEntry() { return snapshot(last()); }
+
+    @Override
+    public Map.Entry<K, V> pollFirstEntry() { return poll(first()); }
+
+    @Override
+    public Map.Entry<K, V> pollLastEntry() { return poll(last()); }
+
+    private Map.Entry<K, V> poll(MapNode<K, V> node) {
+        if(node == null)
+            return null;
+        K key = node.getKey();
+        Map.Entry<K, V> entry = snapshot(node, key);
+        tree.delete(key);
+        return entry;
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return new BSTMap<>(tree, fromStart, lo, loInclusive, toEnd, hi, hiInclusive, !descending);
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return new KeySet<>(this);
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        if(descending)
+            return bounded(false, toKey, toInclusive, false, fromKey, fromInclusive);
+        return bounded(false, fromKey, fromInclusive, false, toKey, toInclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        if(descending)
+            return bounded(false, toKey, inclusive, true, null, false);
+        return bounded(true, null, false, false, toKey, inclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        if(descending)
+            return bounded(true, null, false, false, fromKey, inclusive);
+        return bounded(false, fromKey, inclusive, true, null, false);
+    }
+
+    /**
+     * Narrows this view down to the given ascending bounds, which must lie
+     * within the bounds of this view.
+     */
+    private BSTMap<K, V> bounded(boolean noLo, K newLo, boolean newLoIncl,
+                                 boolean noHi, K newHi, boolean newHiIncl) {
+        if(noLo) {
+            newLo = lo;
+            newLoIncl = loInclusive;
+        }
+        else if(!inRange(newLo, newLoIncl))
+            throw new IllegalArgumentException("fromKey out of range");
+        if(noHi) {
+            newHi = hi;
+            newHiIncl = hiInclusive;
+        }
+        else if(!inRange(newHi, newHiIncl))
+            throw new IllegalArgumentException("toKey out of range");
+        return new BSTMap<>(tree, noLo && fromStart, newLo, newLoIncl,
+                            noHi && toEnd, newHi, newHiIncl, descending);
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new EntryIterator<Map.Entry<K, V>>() {
+                    @Override
+                    Map.Entry<K, V> extract(MapNode<K, V> node) {
+                        return node;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return BSTMap.this.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if(!(o instanceof Map.Entry))
+                    return false;
+                Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+                K key = cast(e.getKey());
+                MapNode<K, V> node = inRange(key) ? tree.getNode(key) : null;
+                return node != null && node.equals(e);
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                if(!contains(o))
+                    return false;
+                BSTMap.this.remove(((Map.Entry<?, ?>) o).getKey());
+                return true;
+            }
+        };
+    }
+
+    private Iterator<K> keyIterator() {
+        return new EntryIterator<K>() {
+            @Override
+            K extract(MapNode<K, V> node) {
+                return node.getKey();
+            }
+        };
+    }
+
+    /**
+     * Walks the entries of this view in its order, one successor (or
+     * predecessor when descending) at a time through the parent references.
+     */
+    private abstract class EntryIterator<T> implements Iterator<T> {
+        private MapNode<K, V> next = first();
+        private MapNode<K, V> lastReturned = null;
+        private int expectedSize = tree.size();
+
+        abstract T extract(MapNode<K, V> node);
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if(next == null)
+                throw new NoSuchElementException();
+            if(tree.size() != expectedSize)
+                throw new ConcurrentModificationException();
+            lastReturned = next;
+            next = descending ? checkLow(tree.predecessor(next)) : checkHigh(tree.successor(next));
+            return extract(lastReturned);
+        }
+
+        @Override
+        public void remove() {
+            if(lastReturned == null)
+                throw new IllegalStateException();
+            // A node with two children takes over its predecessor's entry, which
+            // is the next one to visit when walking backwards.
+            boolean refill = descending && lastReturned.left != null && lastReturned.right != null;
+            tree.delete(lastReturned.getKey());
+            if(refill)
+                next = checkLow(lastReturned);
+            lastReturned = null;
+            expectedSize = tree.size();
+        }
+    }
+
+    /**
+     * The keys of a {@code BSTMap}, as a {@code NavigableSet} backed by the map.
+     */
+    private static class KeySet<K extends Comparable<K>> extends AbstractSet<K> implements NavigableSet<K> {
+        private final BSTMap<K, ?> map;
+
+        KeySet(BSTMap<K, ?> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Iterator<K> iterator() { return map.keyIterator(); }
+
+        @Override
+        public Iterator<K> descendingIterator() { return descendingSet().iterator(); }
+
+        @Override
+        public int size() { return map.size(); }
+
+        @Override
+        public boolean isEmpty() { return map.isEmpty(); }
+
+        @Override
+        public boolean contains(Object o) { return map.containsKey(o); }
+
+        @Override
+        public boolean remove(Object o) {
+            if(!map.containsKey(o))
+                return false;
+            map.remove(o);
+            return true;
+        }
+
+        @Override
+        public void clear() { map.clear(); }
+
+        @Override
+        public Comparator<? super K> comparator() { return map.comparator(); }
+
+        @Override
+        public K first() { return map.firstKey(); }
+
+        @Override
+        public K last() { return map.lastKey(); }
+
+        @Override
+        public K lower(K k) { return map.lowerKey(k); }
+
+        @Override
+        public K floor(K k) { return map.floorKey(k); }
+
+        @Override
+        public K ceiling(K k) { return map.ceilingKey(k); }
+
+        @Override
+        public K higher(K k) { return map.higherKey(k); }
+
+        @Override
+        public K pollFirst() { return keyOf(map.pollFirstEntry()); }
+
+        @Override
+        public K pollLast() { return keyOf(map.pollLastEntry()); }
+
+        private static <K> K keyOf(Map.Entry<K, ?> e) {
+            return (e == null) ? null : e.getKey();
+        }
+
+        @Override
+        public NavigableSet<K> descendingSet() {
+            return new KeySet<>((BSTMap<K, ?>) map.descendingMap());
+        }
+
+        @Override
+        public NavigableSet<K> subSet(K from, boolean fromIncl, K to, boolean toIncl) {
+            return new KeySet<>((BSTMap<K, ?>) map.subMap(from, fromIncl, to, toIncl));
+        }
+
+        @Override
+        public NavigableSet<K> headSet(K to, boolean incl) {
+            return new KeySet<>((BSTMap<K, ?>) map.headMap(to, incl));
+        }
+
+        @Override
+        public NavigableSet<K> tailSet(K from, boolean incl) {
+            return new KeySet<>((BSTMap<K, ?>) map.tailMap(from, incl));
+        }
+
+        @Override
+        public SortedSet<K> subSet(K from, K to) { return subSet(from, true, to, false); }
+
+        @Override
+        public SortedSet<K> headSet(K to) { return headSet(to, false); }
+
+        @Override
+        public SortedSet<K> tailSet(K from) { return tailSet(from, true); }
+    }
+}
\ No newline at end of file
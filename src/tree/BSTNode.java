@@ -27,6 +27,17 @@ public class BSTNode<E extends Comparable<E>>
      */
     protected BSTNode<E> right = null;
     
+    /**
+     * The number of nodes in the subtree rooted at this node, itself included.
+     */
+    protected int size = 1;
+    
+    /**
+     * The number of copies of the data this node holds; only ever more than one
+     * in a tree which counts duplicates.
+     */
+    protected int count = 1;
+    
     /**
      * The data which this node holds.
      */
@@ -50,6 +61,25 @@ public class BSTNode<E extends Comparable<E>>
         return data;
     }
     
+    /**
+     * Retrieves the number of nodes in the subtree rooted at this node, 
+     * including this node itself.
+     * 
+     * @return the size of this node's subtree
+     */
+    public int getSize() {
+        return size;
+    }
+    
+    /**
+     * Retrieves the number of copies of the data which this node holds.
+     * 
+     * @return the number of copies of this node's data
+     */
+    public int getCount() {
+        return count;
+    }
+    
     /**
      * Sets the data which this node holds to the new specified data.
      * 
@@ -1,6 +1,38 @@
 package tree;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 public class BSTUnitTester {
 
@@ -88,6 +120,75 @@ public class BSTUnitTester {
         System.out.println();
         
         this.breadthfirstTester();
+        System.out.println();
+        
+        this.levelsTester();
+        System.out.println();
+        
+        this.comparatorTester();
+        System.out.println();
+        
+        this.selectRankTester();
+        System.out.println();
+
+        this.redBlackTester();
+        System.out.println();
+
+        this.avlTester();
+        System.out.println();
+
+        this.bstMapTester();
+        System.out.println();
+
+        this.concurrentTester();
+        System.out.println();
+
+        this.stampedTester();
+        System.out.println();
+
+        this.persistentTester();
+        System.out.println();
+
+        this.snapshotTester();
+        System.out.println();
+
+        this.mappedTester();
+        System.out.println();
+
+        this.loggedTester();
+        System.out.println();
+
+        this.frozenTester();
+        System.out.println();
+
+        this.bPlusTreeTester();
+        System.out.println();
+
+        this.groupCommitTester();
+        System.out.println();
+
+        this.arrayTester();
+        System.out.println();
+
+        this.primitiveTester();
+        System.out.println();
+
+        this.rangeTester();
+        System.out.println();
+
+        this.iteratorTester();
+        System.out.println();
+
+        this.streamTester();
+        System.out.println();
+
+        this.parallelTester();
+        System.out.println();
+
+        this.loadTester();
+        System.out.println();
+
+        this.navigationTester();
     }
 
     private boolean insertTest() {
@@ -1092,6 +1193,3023 @@ public class BSTUnitTester {
         }
         System.out.println(testOutput);
     }
+    //Walks the tree level by level with the callback form of breadthfirst() and
+    //  checks that it visits the same nodes as breadthfirst(), and that each level
+    //  end is reported right after the last node of that depth.
+    private void levelsTester() {
+        boolean levelsTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "breadthfirst(levels) Test:");
+        String errors = "";
+        String msg = "";
+
+        try {
+            String expected = "";
+            for (BSTNode<String> node : this.bst.breadthfirst()) {
+                expected += node.getData();
+            }
+
+            final String[] results = {""};
+            final int[] level = {0};
+            final boolean[] depthsCorrect = {true};
+
+            msg += "\n" + INDENT_WIDTH_1 + "Visiting the tree level by level:";
+            this.bst.breadthfirst(node -> {
+                results[0] += node.getData();
+                if (this.bst.depth(node) != level[0]) {
+                    depthsCorrect[0] = false;
+                }
+            }, depth -> {
+                if (depth != level[0]) {
+                    depthsCorrect[0] = false;
+                }
+                results[0] += "|";
+                level[0]++;
+            });
+            msg += String.format(FORMAT_2, "Levels:", results[0]);
+
+            if (!expected.equals(results[0].replace("|", ""))) {
+                levelsTestPassed = false;
+                errors += String.format(FORMAT_2, "*Expected Breadthfirst:", expected);
+                errors += String.format(FORMAT_2, "*Result Breadthfirst:", results[0]);
+            }
+            if (!depthsCorrect[0] || level[0] != this.bst.height(this.bst.root) + 1) {
+                levelsTestPassed = false;
+                errors += String.format(FORMAT_2, "*Level ends:", results[0]);
+            }
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (levelsTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (Levels not reported where they end. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    //Builds a tree ordered by a reversed, counting comparator and checks that the
+    //  order is respected and that find() and insert() compare exactly once per
+    //  level visited.
+    private void comparatorTester() {
+        boolean comparatorTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "Comparator Test:");
+        String errors = "";
+        String msg = "";
+
+        try {
+            final int[] comparisons = {0};
+            Comparator<String> reversed = (a, b) -> {
+                comparisons[0]++;
+                return b.compareTo(a);
+            };
+            BinarySearchTree<String> rbst = new BinarySearchTree<>(reversed);
+
+            String testData = "mtpsbyfjdxcnelqhgaurzwikov";
+
+            msg += "\n" + INDENT_WIDTH_1 + "Inserting the alphabet with a reversed comparator...";
+            for (int i = 0 ; i < testData.length() ; i++) {
+                rbst.insert(Character.toString(testData.charAt(i)));
+            }
+
+            String expected = "zyxwvutsrqponmlkjihgfedcba";
+            String results = "";
+            for (BSTNode<String> node : rbst.inorder()) {
+                results += node.getData();
+            }
+
+            if (!expected.equals(results)) {
+                comparatorTestPassed = false;
+                errors += String.format(FORMAT_2, "*Expected Inorder:", expected);
+                errors += String.format(FORMAT_2, "*Result Inorder:", results);
+            }
+
+            msg += "\n" + INDENT_WIDTH_1 + "Counting comparisons made by find():";
+            for (BSTNode<String> node : rbst.inorder()) {
+                comparisons[0] = 0;
+                rbst.find(node.getData());
+                int expectedCount = rbst.depth(node) + 1;
+
+                if (comparisons[0] != expectedCount) {
+                    comparatorTestPassed = false;
+                    msg += String.format(FORMAT_3, "*find(" + node.getData() + ")", "Expected: " + expectedCount, "Actual: " + comparisons[0]);
+                }
+                else {
+                    msg += String.format(FORMAT_3, "find(" + node.getData() + ")", "Expected: " + expectedCount, "Actual: " + comparisons[0]);
+                }
+            }
+
+            msg += "\n" + INDENT_WIDTH_1 + "Counting comparisons made by insert():";
+            String[] newValues = {"aa", "mm", "zz"};
+            for (int i = 0 ; i < newValues.length ; i++) {
+                comparisons[0] = 0;
+                rbst.insert(newValues[i]);
+                int actualCount = comparisons[0];
+
+                BSTNode<String> inserted = null;
+                for (BSTNode<String> node : rbst.inorder()) {
+                    if (node.getData().equals(newValues[i])) {
+                        inserted = node;
+                    }
+                }
+                int expectedCount = rbst.depth(inserted);
+
+                if (actualCount != expectedCount) {
+                    comparatorTestPassed = false;
+                    msg += String.format(FORMAT_3, "*insert(" + newValues[i] + ")", "Expected: " + expectedCount, "Actual: " + actualCount);
+                }
+                else {
+                    msg += String.format(FORMAT_3, "insert(" + newValues[i] + ")", "Expected: " + expectedCount, "Actual: " + actualCount);
+                }
+            }
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (comparatorTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (Comparator not respected or too many comparisons. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+    //Checks select() and rank() against the positions of the values in the inorder
+    //  traversal, including values that were deleted and values never inserted.
+    private void selectRankTester() {
+        boolean selectRankTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "select()/rank() Test:");
+        String errors = "";
+        String msg = "";
+
+        String[] testValues = {"0", "a", "f", "m", "n", "q", "z", "zz"};
+        int[] expectedRanks = {0, 0, 5, 11, 11, 13, 21, 22};
+
+        try {
+            String expected = "abcdeghijklnprstuvwxyz";
+
+            msg += "\n" + INDENT_WIDTH_1 + "Selecting every index of the tree:";
+            for (int i = 0; i < expected.length(); i++) {
+                String actual = this.bst.select(i);
+                String wanted = Character.toString(expected.charAt(i));
+
+                if (!wanted.equals(actual)) {
+                    selectRankTestPassed = false;
+                    msg += String.format(FORMAT_3, "*select(" + i + ")", "Expected: " + wanted, "Actual: " + actual);
+                }
+                else {
+                    msg += String.format(FORMAT_3, "select(" + i + ")", "Expected: " + wanted, "Actual: " + actual);
+                }
+            }
+
+            msg += "\n" + INDENT_WIDTH_1 + "Ranking the following values:";
+            for (int i = 0; i < testValues.length; i++) {
+                int actual = this.bst.rank(testValues[i]);
+
+                if (actual != expectedRanks[i]) {
+                    selectRankTestPassed = false;
+                    msg += String.format(FORMAT_3, "*rank(" + testValues[i] + ")", "Expected: " + expectedRanks[i], "Actual: " + actual);
+                }
+                else {
+                    msg += String.format(FORMAT_3, "rank(" + testValues[i] + ")", "Expected: " + expectedRanks[i], "Actual: " + actual);
+                }
+            }
+
+            if (this.bst.size() != expected.length()) {
+                selectRankTestPassed = false;
+                errors += String.format(FORMAT_2, "*Expected size():", expected.length());
+                errors += String.format(FORMAT_2, "*Result size():", this.bst.size());
+            }
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (selectRankTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (select(), rank() or size() not correct. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+    //Inserts values in ascending order, which would turn an unbalanced tree into a
+    //  list, then deletes a random half of them, checking the red-black rules, the
+    //  parent links and the height after each step.
+    private void redBlackTester() {
+        boolean redBlackTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "RedBlackTree Test:");
+        String errors = "";
+        String msg = "";
+
+        try {
+            RedBlackTree<Integer> rbt = new RedBlackTree<>();
+            int n = 1000;
+
+            msg += "\n" + INDENT_WIDTH_1 + "Inserting 0 to " + (n - 1) + " in ascending order...";
+            for (int i = 0; i < n; i++) {
+                rbt.insert(i);
+            }
+            errors += checkRedBlack(rbt, "after inserts");
+
+            ArrayList<Integer> values = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                values.add(i);
+            }
+            Collections.shuffle(values, new Random(1));
+
+            msg += "\n" + INDENT_WIDTH_1 + "Deleting " + (n / 2) + " of them in random order...";
+            for (int i = 0; i < n / 2; i++) {
+                rbt.delete(values.get(i));
+                if (i % 50 == 0) {
+                    errors += checkRedBlack(rbt, "after " + (i + 1) + " deletes");
+                }
+            }
+            errors += checkRedBlack(rbt, "after deletes");
+
+            ArrayList<Integer> expected = new ArrayList<>(values.subList(n / 2, n));
+            Collections.sort(expected);
+            ArrayList<Integer> results = new ArrayList<>();
+            for (BSTNode<Integer> node : rbt.inorder()) {
+                results.add(node.getData());
+            }
+            if (!expected.equals(results)) {
+                errors += String.format(FORMAT_2, "*Expected Inorder:", expected);
+                errors += String.format(FORMAT_2, "*Result Inorder:", results);
+            }
+
+            redBlackTestPassed = errors.isEmpty();
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (redBlackTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (Red-black rules, links or height broken. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    //Same workload as the red-black test, checking instead that every cached height
+    //  is right and every balance factor is between -1 and 1.
+    private void avlTester() {
+        boolean avlTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "AVLTree Test:");
+        String errors = "";
+        String msg = "";
+
+        try {
+            AVLTree<Integer> avl = new AVLTree<>();
+            int n = 1000;
+
+            msg += "\n" + INDENT_WIDTH_1 + "Inserting 0 to " + (n - 1) + " in ascending order...";
+            for (int i = 0; i < n; i++) {
+                avl.insert(i);
+            }
+            errors += checkAVL(avl, "after inserts");
+
+            ArrayList<Integer> values = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                values.add(i);
+            }
+            Collections.shuffle(values, new Random(2));
+
+            msg += "\n" + INDENT_WIDTH_1 + "Deleting " + (n / 2) + " of them in random order...";
+            for (int i = 0; i < n / 2; i++) {
+                avl.delete(values.get(i));
+                if (i % 50 == 0) {
+                    errors += checkAVL(avl, "after " + (i + 1) + " deletes");
+                }
+            }
+            errors += checkAVL(avl, "after deletes");
+
+            ArrayList<Integer> expected = new ArrayList<>(values.subList(n / 2, n));
+            Collections.sort(expected);
+            ArrayList<Integer> results = new ArrayList<>();
+            for (BSTNode<Integer> node : avl.inorder()) {
+                results.add(node.getData());
+            }
+            if (!expected.equals(results)) {
+                errors += String.format(FORMAT_2, "*Expected Inorder:", expected);
+                errors += String.format(FORMAT_2, "*Result Inorder:", results);
+            }
+
+            avlTestPassed = errors.isEmpty();
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (avlTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (Heights, balance, links or order broken. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    /**
+     * Checks that every cached height matches the walked one, that every balance
+     * factor is between -1 and 1, and that the tree is no taller than
+     * 1.44 log2(n + 2).
+     *
+     * @return An error line for every rule broken, or an empty string.
+     */
+    private String checkAVL(AVLTree<Integer> avl, String when) {
+        String errors = checkLinks(avl.root, null);
+
+        for (BSTNode<Integer> node : avl.inorder()) {
+            int height = walkHeight(node);
+            if (avl.height(node) != height) {
+                errors += String.format(FORMAT_2, "*Height of " + node.getData() + ":", avl.height(node) + " instead of " + height);
+            }
+            if (Math.abs(avl.balance(node)) > 1) {
+                errors += String.format(FORMAT_2, "*Balance of " + node.getData() + ":", avl.balance(node));
+            }
+        }
+
+        int height = walkHeight(avl.root);
+        double bound = 1.44 * Math.log(avl.size() + 2) / Math.log(2);
+        if (height > bound) {
+            errors += String.format(FORMAT_2, "*Height " + when + ":", height + " > " + bound);
+        }
+
+        return errors;
+    }
+
+    //Builds a BSTMap and a TreeMap from the same random entries, then narrows both
+    //  through random chains of subMap(), headMap(), tailMap() and descendingMap(),
+    //  checking that each view accepts or rejects the same bounds, holds the same
+    //  entries, navigates the same way and removes the same keys as TreeMap's.
+    private void bstMapTester() {
+        boolean bstMapTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "BSTMap Test:");
+        String errors = "";
+        String msg = "";
+
+        try {
+            Random random = new Random(16);
+            BSTMap<Integer, Integer> map = new BSTMap<>();
+            TreeMap<Integer, Integer> expectedMap = new TreeMap<>();
+            for (int i = 0; i < 200; i++) {
+                int key = random.nextInt(100);
+                map.put(key, i);
+                expectedMap.put(key, i);
+            }
+
+            msg += "\n" + INDENT_WIDTH_1 + "Comparing random chains of views:";
+            for (int trial = 0; trial < 500 && bstMapTestPassed; trial++) {
+                NavigableMap<Integer, Integer> view = map;
+                NavigableMap<Integer, Integer> expectedView = expectedMap;
+                String chain = "map";
+
+                for (int step = 0; step < 4; step++) {
+                    int from = random.nextInt(110) - 5;
+                    int to = random.nextInt(110) - 5;
+                    boolean fromInclusive = random.nextBoolean();
+                    boolean toInclusive = random.nextBoolean();
+                    int op = random.nextInt(4);
+
+                    NavigableMap<Integer, Integer> next = null;
+                    NavigableMap<Integer, Integer> expectedNext = null;
+                    String call;
+                    if (op == 0) {
+                        call = ".subMap(" + from + "," + fromInclusive + "," + to + "," + toInclusive + ")";
+                    }
+                    else if (op == 1) {
+                        call = ".headMap(" + to + "," + toInclusive + ")";
+                    }
+                    else if (op == 2) {
+                        call = ".tailMap(" + from + "," + fromInclusive + ")";
+                    }
+                    else {
+                        call = ".descendingMap()";
+                    }
+                    chain += call;
+
+                    try {
+                        next = narrow(view, op, from, fromInclusive, to, toInclusive);
+                    }
+                    catch (IllegalArgumentException ex) {
+                        next = null;
+                    }
+                    try {
+                        expectedNext = narrow(expectedView, op, from, fromInclusive, to, toInclusive);
+                    }
+                    catch (IllegalArgumentException ex) {
+                        expectedNext = null;
+                    }
+
+                    if ((next == null) != (expectedNext == null)) {
+                        bstMapTestPassed = false;
+                        errors += String.format(FORMAT_2, "*Bounds accepted:", chain + ((next == null) ? " threw" : " did not throw"));
+                        break;
+                    }
+                    if (next == null) {
+                        break;
+                    }
+                    view = next;
+                    expectedView = expectedNext;
+
+                    String mismatch = compareViews(view, expectedView, random);
+                    if (!mismatch.isEmpty()) {
+                        bstMapTestPassed = false;
+                        errors += String.format(FORMAT_2, "*" + chain + ":", mismatch);
+                        break;
+                    }
+                }
+                if (trial % 100 == 0) {
+                    msg += String.format(FORMAT_2, "Chain " + trial + ":", chain);
+                }
+            }
+
+            if (!new ArrayList<>(map.entrySet()).equals(new ArrayList<>(expectedMap.entrySet()))) {
+                bstMapTestPassed = false;
+                errors += String.format(FORMAT_2, "*Expected Entries:", expectedMap);
+                errors += String.format(FORMAT_2, "*Result Entries:", map);
+            }
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (bstMapTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (A view differs from TreeMap's. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    /**
+     * Applies one of subMap(), headMap(), tailMap() or descendingMap() to a map.
+     */
+    private NavigableMap<Integer, Integer> narrow(NavigableMap<Integer, Integer> map, int op, int from,
+                                                  boolean fromInclusive, int to, boolean toInclusive) {
+        if (op == 0) {
+            return map.subMap(from, fromInclusive, to, toInclusive);
+        }
+        else if (op == 1) {
+            return map.headMap(to, toInclusive);
+        }
+        else if (op == 2) {
+            return map.tailMap(from, fromInclusive);
+        }
+        return map.descendingMap();
+    }
+
+    /**
+     * Compares a view against the same view of a TreeMap: its entries in order,
+     * its size, the navigation methods around a random key, and removing a
+     * random key through both.
+     *
+     * @return A description of the first difference, or an empty string.
+     */
+    private String compareViews(NavigableMap<Integer, Integer> view, NavigableMap<Integer, Integer> expected,
+                                Random random) {
+        if (!new ArrayList<>(view.entrySet()).equals(new ArrayList<>(expected.entrySet()))) {
+            return "entries " + view + " instead of " + expected;
+        }
+        if (view.size() != expected.size()) {
+            return "size " + view.size() + " instead of " + expected.size();
+        }
+
+        int key = random.nextInt(110) - 5;
+        if (!Objects.equals(view.floorKey(key), expected.floorKey(key))
+                || !Objects.equals(view.ceilingKey(key), expected.ceilingKey(key))
+                || !Objects.equals(view.lowerKey(key), expected.lowerKey(key))
+                || !Objects.equals(view.higherKey(key), expected.higherKey(key))) {
+            return "navigation around " + key;
+        }
+        if (!Objects.equals(view.firstEntry(), expected.firstEntry())
+                || !Objects.equals(view.lastEntry(), expected.lastEntry())) {
+            return "first or last entry";
+        }
+
+        if (random.nextInt(8) == 0) {
+            if (!Objects.equals(view.remove(key), expected.remove(key))) {
+                return "remove(" + key + ")";
+            }
+        }
+
+        return "";
+    }
+
+    //Runs writers which insert and delete their own keys alongside readers which
+    //  keep looking up keys nobody touches, then checks that no reader ever missed
+    //  one of those keys and that the tree ends up holding exactly the keys left.
+    private void concurrentTester() {
+        boolean concurrentTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "ConcurrentBinarySearchTree Test:");
+        String errors = "";
+        String msg = "";
+
+        try {
+            final ConcurrentBinarySearchTree<Integer> cbst = new ConcurrentBinarySearchTree<>();
+            final int n = 4000;
+            final int writers = 4;
+
+            ArrayList<Integer> stable = new ArrayList<>();
+            for (int i = 0; i < n; i += 4) {
+                stable.add(i);
+            }
+            Collections.shuffle(stable, new Random(18));
+            for (Integer key : stable) {
+                cbst.insert(key);
+            }
+
+            msg += "\n" + INDENT_WIDTH_1 + "Inserting and deleting from " + writers + " threads while 2 threads read...";
+            final AtomicBoolean writing = new AtomicBoolean(true);
+            final AtomicInteger missed = new AtomicInteger();
+            final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+            Thread[] readers = new Thread[2];
+            for (int r = 0; r < readers.length; r++) {
+                readers[r] = new Thread(() -> {
+                    try {
+                        while (writing.get()) {
+                            for (int key = 0; key < n; key += 4) {
+                                if (!cbst.find(key)) {
+                                    missed.incrementAndGet();
+                                }
+                            }
+                        }
+                    }
+                    catch (Throwable ex) {
+                        failure.compareAndSet(null, ex);
+                    }
+                });
+                readers[r].start();
+            }
+
+            Thread[] writerThreads = new Thread[writers];
+            for (int w = 0; w < writers; w++) {
+                final int seed = w;
+                writerThreads[w] = new Thread(() -> {
+                    try {
+                        ArrayList<Integer> keys = new ArrayList<>();
+                        for (int key = seed * n / writers; key < (seed + 1) * n / writers; key++) {
+                            if (key % 4 != 0) {
+                                keys.add(key);
+                            }
+                        }
+                        Collections.shuffle(keys, new Random(seed));
+                        for (Integer key : keys) {
+                            cbst.insert(key);
+                        }
+                        for (Integer key : keys) {
+                            if (key % 2 == 1 && !cbst.delete(key)) {
+                                throw new IllegalStateException("delete(" + key + ") found nothing");
+                            }
+                        }
+                    }
+                    catch (Throwable ex) {
+                        failure.compareAndSet(null, ex);
+                    }
+                });
+                writerThreads[w].start();
+            }
+
+            for (Thread writer : writerThreads) {
+                writer.join();
+            }
+            writing.set(false);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+
+            if (failure.get() != null) {
+                concurrentTestPassed = false;
+                errors += String.format(FORMAT_2, "*Thread failed:", failure.get());
+            }
+            if (missed.get() != 0) {
+                concurrentTestPassed = false;
+                errors += String.format(FORMAT_2, "*Missed lookups:", missed.get());
+            }
+
+            ArrayList<Integer> expected = new ArrayList<>();
+            for (int key = 0; key < n; key += 2) {
+                expected.add(key);
+            }
+            ArrayList<Integer> results = new ArrayList<>();
+            for (Integer key : cbst) {
+                results.add(key);
+            }
+            if (!expected.equals(results) || cbst.size() != expected.size()) {
+                concurrentTestPassed = false;
+                errors += String.format(FORMAT_2, "*Expected size():", expected.size());
+                errors += String.format(FORMAT_2, "*Result size():", cbst.size() + ", " + results.size() + " iterated");
+            }
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (concurrentTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (Lookups missed or wrong contents. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    //Wraps a red-black tree, whose rotations keep moving the nodes readers walk
+    //  through, and runs a writer against readers which look up keys the writer
+    //  never touches; then checks that an exception from a comparator on an
+    //  untouched tree still reaches the caller instead of being swallowed.
+    private void stampedTester() {
+        boolean stampedTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "StampedBinarySearchTree Test:");
+        String errors = "";
+        String msg = "";
+
+        try {
+            final StampedBinarySearchTree<Integer> sbst = new StampedBinarySearchTree<>(new RedBlackTree<Integer>());
+            final int n = 2000;
+            for (int key = 0; key < n; key += 2) {
+                sbst.insert(key);
+            }
+
+            msg += "\n" + INDENT_WIDTH_1 + "Inserting and deleting odd keys while 2 threads read even keys...";
+            final AtomicBoolean writing = new AtomicBoolean(true);
+            final AtomicInteger wrong = new AtomicInteger();
+            final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+            Thread[] readers = new Thread[2];
+            for (int r = 0; r < readers.length; r++) {
+                readers[r] = new Thread(() -> {
+                    try {
+                        while (writing.get()) {
+                            for (int key = 0; key < n; key += 2) {
+                                if (!sbst.find(key) || sbst.floor(key) != key || sbst.ceiling(key) != key) {
+                                    wrong.incrementAndGet();
+                                }
+                            }
+                            if (sbst.min() != 0) {
+                                wrong.incrementAndGet();
+                            }
+                        }
+                    }
+                    catch (Throwable ex) {
+                        failure.compareAndSet(null, ex);
+                    }
+                });
+                readers[r].start();
+            }
+
+            Random random = new Random(19);
+            for (int i = 0; i < 20000; i++) {
+                int key = 2 * random.nextInt(n / 2) + 1;
+                if (!sbst.add(key)) {
+                    sbst.delete(key);
+                }
+            }
+            writing.set(false);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+
+            if (failure.get() != null) {
+                stampedTestPassed = false;
+                errors += String.format(FORMAT_2, "*Thread failed:", failure.get());
+            }
+            if (wrong.get() != 0) {
+                stampedTestPassed = false;
+                errors += String.format(FORMAT_2, "*Wrong lookups:", wrong.get());
+            }
+
+            msg += "\n" + INDENT_WIDTH_1 + "Looking up a key the comparator rejects...";
+            StampedBinarySearchTree<String> strict = new StampedBinarySearchTree<>(new BinarySearchTree<String>((a, b) -> {
+                if (a.isEmpty() || b.isEmpty()) {
+                    throw new IllegalArgumentException("empty key");
+                }
+                return a.compareTo(b);
+            }));
+            strict.insert("m");
+            try {
+                strict.find("");
+                stampedTestPassed = false;
+                errors += String.format(FORMAT_2, "*find(\"\"):", "comparator exception was swallowed");
+            }
+            catch (IllegalArgumentException ex) {
+                msg += String.format(FORMAT_2, "find(\"\"):", ex);
+            }
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (stampedTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (Optimistic reads wrong or exception lost. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    //Derives a chain of versions by random inserts and deletes, keeping a TreeSet
+    //  copy of each, then checks that every old version still holds exactly what
+    //  it held when it was made and answers queries and stays balanced as it did.
+    private void persistentTester() {
+        boolean persistentTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "PersistentBinarySearchTree Test:");
+        String errors = "";
+        String msg = "";
+
+        try {
+            Random random = new Random(20);
+            ArrayList<PersistentBinarySearchTree<Integer>> versions = new ArrayList<>();
+            ArrayList<TreeSet<Integer>> expectedVersions = new ArrayList<>();
+
+            PersistentBinarySearchTree<Integer> version = new PersistentBinarySearchTree<>();
+            TreeSet<Integer> expected = new TreeSet<>();
+
+            msg += "\n" + INDENT_WIDTH_1 + "Deriving 2000 versions by random inserts and deletes...";
+            for (int i = 0; i < 2000; i++) {
+                int key = random.nextInt(500);
+                if (expected.contains(key)) {
+                    version = version.delete(key);
+                    expected.remove(key);
+                }
+                else {
+                    version = version.insert(key);
+                    expected.add(key);
+                }
+                versions.add(version);
+                expectedVersions.add(new TreeSet<>(expected));
+            }
+
+            msg += "\n" + INDENT_WIDTH_1 + "Checking every version against its copy:";
+            for (int i = 0; i < versions.size(); i++) {
+                PersistentBinarySearchTree<Integer> old = versions.get(i);
+                TreeSet<Integer> copy = expectedVersions.get(i);
+                String mismatch = "";
+
+                if (!old.inorder().equals(new ArrayList<>(copy)) || old.size() != copy.size()) {
+                    mismatch = "inorder " + old.inorder();
+                }
+                else if (old.height() > 1.44 * Math.log(old.size() + 2) / Math.log(2)) {
+                    mismatch = "height " + old.height() + " for " + old.size() + " values";
+                }
+                else if (!copy.isEmpty()) {
+                    int key = random.nextInt(500);
+                    int k = random.nextInt(copy.size());
+                    if (old.find(key) != copy.contains(key)
+                            || !Objects.equals(old.floor(key), copy.floor(key))
+                            || !Objects.equals(old.ceiling(key), copy.ceiling(key))
+                            || old.rank(key) != copy.headSet(key).size()
+                            || !old.select(k).equals(old.inorder().get(k))) {
+                        mismatch = "queries around " + key;
+                    }
+                }
+
+                if (!mismatch.isEmpty()) {
+                    persistentTestPassed = false;
+                    errors += String.format(FORMAT_2, "*Version " + i + ":", mismatch);
+                }
+            }
+            msg += String.format(FORMAT_2, "Last version:", versions.get(versions.size() - 1).size() + " values");
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (persistentTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (An older version changed. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    //Saves a plain tree counting duplicates, a red-black tree and an AVL tree, then
+    //  restores each into an empty tree of the same kind and checks that the shape,
+    //  counts, colors and heights came back, that the restored trees keep working,
+    //  and that a truncated snapshot is rejected without touching the tree.
+    private void snapshotTester() {
+        boolean snapshotTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "save()/restore() Test:");
+        String errors = "";
+        String msg = "";
+
+        try {
+            Random random = new Random(21);
+            BinarySearchTree<String> plain = new BinarySearchTree<>();
+            plain.setMultiset(true);
+            RedBlackTree<Integer> rbt = new RedBlackTree<>();
+            AVLTree<Integer> avl = new AVLTree<>();
+            for (int i = 0; i < 500; i++) {
+                plain.add(Integer.toString(random.nextInt(200), 36));
+                rbt.add(random.nextInt(1000));
+                avl.add(random.nextInt(1000));
+            }
+
+            msg += "\n" + INDENT_WIDTH_1 + "Saving and restoring each tree:";
+            BinarySearchTree<String> plainCopy = new BinarySearchTree<>();
+            plainCopy.setMultiset(true);
+            errors += checkSnapshot(plain, plainCopy, KeyCodec.STRING, "BinarySearchTree");
+
+            RedBlackTree<Integer> rbtCopy = new RedBlackTree<>();
+            errors += checkSnapshot(rbt, rbtCopy, KeyCodec.INTEGER, "RedBlackTree");
+            ArrayList<BSTNode<Integer>> saved = rbt.preorder();
+            ArrayList<BSTNode<Integer>> restored = rbtCopy.preorder();
+            for (int i = 0; i < saved.size() && i < restored.size(); i++) {
+                if (rbt.isRed(saved.get(i)) != rbtCopy.isRed(restored.get(i))) {
+                    errors += String.format(FORMAT_2, "*RedBlackTree color:", restored.get(i).getData());
+                }
+            }
+
+            AVLTree<Integer> avlCopy = new AVLTree<>();
+            errors += checkSnapshot(avl, avlCopy, KeyCodec.INTEGER, "AVLTree");
+
+            msg += "\n" + INDENT_WIDTH_1 + "Inserting into and deleting from the restored trees...";
+            for (int i = 0; i < 500; i++) {
+                int key = random.nextInt(1000);
+                if (!rbtCopy.add(key)) {
+                    rbtCopy.delete(key);
+                }
+                if (!avlCopy.add(key)) {
+                    avlCopy.delete(key);
+                }
+            }
+            errors += checkRedBlack(rbtCopy, "after restore");
+            errors += checkAVL(avlCopy, "after restore");
+
+            msg += "\n" + INDENT_WIDTH_1 + "Restoring a truncated snapshot...";
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            avl.save(out, KeyCodec.INTEGER);
+            byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() - 3);
+            int sizeBefore = avlCopy.size();
+            try {
+                avlCopy.restore(new ByteArrayInputStream(truncated), KeyCodec.INTEGER);
+                errors += String.format(FORMAT_2, "*Truncated snapshot:", "was accepted");
+            }
+            catch (IOException ex) {
+                if (avlCopy.size() != sizeBefore) {
+                    errors += String.format(FORMAT_2, "*Truncated snapshot:", "changed the tree");
+                }
+            }
+
+            snapshotTestPassed = errors.isEmpty();
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (snapshotTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (A restored tree differs from the saved one. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    /**
+     * Saves a tree, restores the snapshot into another tree of the same kind, and
+     * compares the two node by node in preorder, which pins down the shape.
+     *
+     * @return An error line for every difference, or an empty string.
+     */
+    private <E extends Comparable<E>> String checkSnapshot(BinarySearchTree<E> tree, BinarySearchTree<E> copy,
+                                                           KeyCodec<E> codec, String name) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        tree.save(out, codec);
+        copy.restore(new ByteArrayInputStream(out.toByteArray()), codec);
+
+        ArrayList<BSTNode<E>> expected = tree.preorder();
+        ArrayList<BSTNode<E>> results = copy.preorder();
+        if (expected.size() != results.size()) {
+            return String.format(FORMAT_2, "*" + name + " size:", results.size() + " instead of " + expected.size());
+        }
+
+        String errors = "";
+        for (int i = 0; i < expected.size(); i++) {
+            BSTNode<E> a = expected.get(i);
+            BSTNode<E> b = results.get(i);
+            if (!a.getData().equals(b.getData()) || a.getCount() != b.getCount() || a.getSize() != b.getSize()
+                    || copy.height(b) != tree.height(a)) {
+                errors += String.format(FORMAT_2, "*" + name + " node " + i + ":", b.getData() + " instead of " + a.getData());
+            }
+        }
+
+        return errors;
+    }
+
+    //Writes a LongBinarySearchTree to a file and checks the mapped tree against a
+    //  TreeSet; then rewrites the file while the old one is still mapped, and
+    //  checks that the old mapping keeps its values, that the new file holds the
+    //  new ones, and that a failed write leaves the file and no leftovers behind.
+    private void mappedTester() {
+        boolean mappedTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "MappedLongTree Test:");
+        String errors = "";
+        String msg = "";
+
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("mapped");
+            Path file = dir.resolve("tree.bin");
+            Random random = new Random(22);
+
+            LongBinarySearchTree lbst = new LongBinarySearchTree();
+            TreeSet<Long> expected = new TreeSet<>();
+            for (int i = 0; i < 2000; i++) {
+                long key = random.nextInt(1 << 20) - (1 << 19);
+                if (expected.add(key)) {
+                    lbst.insert(key);
+                }
+            }
+
+            msg += "\n" + INDENT_WIDTH_1 + "Writing " + expected.size() + " values and querying the mapped file...";
+            MappedLongTree.write(file, lbst);
+            try (MappedLongTree old = MappedLongTree.open(file)) {
+                errors += checkMapped(old, expected, random, "first file");
+
+                msg += "\n" + INDENT_WIDTH_1 + "Rewriting the file while it is still mapped...";
+                BinarySearchTree<Long> replacement = new BinarySearchTree<>();
+                TreeSet<Long> expectedReplacement = new TreeSet<>();
+                for (int i = 0; i < 1000; i++) {
+                    long key = random.nextInt(1 << 20);
+                    if (expectedReplacement.add(key)) {
+                        replacement.insert(key);
+                    }
+                }
+                MappedLongTree.write(file, replacement);
+
+                errors += checkMapped(old, expected, random, "old mapping");
+                try (MappedLongTree current = MappedLongTree.open(file)) {
+                    errors += checkMapped(current, expectedReplacement, random, "second file");
+                }
+
+                msg += "\n" + INDENT_WIDTH_1 + "Writing values out of order...";
+                try {
+                    MappedLongTree.write(file, Arrays.stream(new long[] {1, 3, 2}).iterator());
+                    errors += String.format(FORMAT_2, "*write(1, 3, 2):", "was accepted");
+                }
+                catch (IllegalArgumentException ex) {
+                    try (MappedLongTree current = MappedLongTree.open(file)) {
+                        errors += checkMapped(current, expectedReplacement, random, "after failed write");
+                    }
+                }
+            }
+
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+                for (Path leftover : files) {
+                    if (!leftover.equals(file)) {
+                        errors += String.format(FORMAT_2, "*Leftover file:", leftover.getFileName());
+                    }
+                }
+            }
+
+            mappedTestPassed = errors.isEmpty();
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+        finally {
+            deleteDirectory(dir);
+        }
+
+        if (mappedTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (Mapped file differs from what was written. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    /**
+     * Compares a mapped tree against a TreeSet of the values written to it: all of
+     * its values, and the queries around a few random keys.
+     *
+     * @return A description of the first difference, or an empty string.
+     */
+    private String checkMapped(MappedLongTree tree, TreeSet<Long> expected, Random random, String when) {
+        if (tree.size() != expected.size()) {
+            return String.format(FORMAT_2, "*Size of " + when + ":", tree.size() + " instead of " + expected.size());
+        }
+        ArrayList<Long> results = new ArrayList<>();
+        for (PrimitiveIterator.OfLong it = tree.range(Long.MIN_VALUE, Long.MAX_VALUE); it.hasNext(); ) {
+            results.add(it.nextLong());
+        }
+        if (!results.equals(new ArrayList<>(expected))) {
+            return String.format(FORMAT_2, "*Values of " + when + ":", "differ");
+        }
+
+        for (int i = 0; i < 100; i++) {
+            long key = random.nextInt(1 << 21) - (1 << 20);
+            long hi = key + random.nextInt(1 << 16);
+            Long floor = expected.floor(key);
+            Long ceiling = expected.ceiling(key);
+            if (tree.find(key) != expected.contains(key)
+                    || tree.rank(key) != expected.headSet(key).size()
+                    || tree.countRange(key, hi) != expected.subSet(key, hi).size()
+                    || tree.floor(key).isPresent() != (floor != null)
+                    || (floor != null && tree.floor(key).getAsLong() != floor)
+                    || tree.ceiling(key).isPresent() != (ceiling != null)
+                    || (ceiling != null && tree.ceiling(key).getAsLong() != ceiling)) {
+                return String.format(FORMAT_2, "*Queries on " + when + ":", "wrong around " + key);
+            }
+        }
+
+        try {
+            tree.countRange(1, 0);
+            return String.format(FORMAT_2, "*countRange(1, 0) on " + when + ":", "was accepted");
+        }
+        catch (IllegalArgumentException ex) {
+            //Rejected, as BinarySearchTree.countRange() rejects it.
+        }
+        try {
+            tree.range(1, 0);
+            return String.format(FORMAT_2, "*range(1, 0) on " + when + ":", "was accepted");
+        }
+        catch (IllegalArgumentException ex) {
+            //Rejected, as BinarySearchTree.range() rejects it.
+        }
+
+        return "";
+    }
+
+    /**
+     * Deletes a temporary directory and the files in it, ignoring any failure.
+     */
+    private void deleteDirectory(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        }
+        catch (IOException ex) {
+            //Only a temporary directory is left behind.
+        }
+    }
+
+    //Recovers logged trees from their directories after a clean close, after the
+    //  log's last record was torn, after the log failed, and after a checkpoint,
+    //  including a crash which left the whole log next to the new snapshot.
+    private void loggedTester() {
+        boolean loggedTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "LoggedBinarySearchTree Test:");
+        String errors = "";
+        String msg = "";
+
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("logged");
+            Path log = dir.resolve("log");
+            TreeSet<Integer> expected = new TreeSet<>();
+            Random random = new Random(23);
+
+            msg += "\n" + INDENT_WIDTH_1 + "Replaying the log after a clean close...";
+            LoggedBinarySearchTree<Integer> lbst = LoggedBinarySearchTree.open(dir, new BinarySearchTree<Integer>(), KeyCodec.INTEGER);
+            for (int i = 0; i < 300; i++) {
+                int key = random.nextInt(200);
+                if (lbst.add(key) != expected.add(key)) {
+                    errors += String.format(FORMAT_2, "*add(" + key + "):", "disagrees with TreeSet");
+                }
+                key = random.nextInt(200);
+                if (lbst.delete(key) != expected.remove(key)) {
+                    errors += String.format(FORMAT_2, "*delete(" + key + "):", "disagrees with TreeSet");
+                }
+            }
+            lbst.close();
+            errors += checkLogged(dir, expected, "replay");
+
+            msg += "\n" + INDENT_WIDTH_1 + "Dropping a torn record at the end of the log...";
+            lbst = LoggedBinarySearchTree.open(dir, new BinarySearchTree<Integer>(), KeyCodec.INTEGER);
+            lbst.insert(1000);
+            lbst.close();
+            try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+                channel.truncate(channel.size() - 2);
+            }
+            errors += checkLogged(dir, expected, "torn tail");
+            lbst = LoggedBinarySearchTree.open(dir, new BinarySearchTree<Integer>(), KeyCodec.INTEGER);
+            lbst.insert(1001);
+            lbst.close();
+            expected.add(1001);
+            errors += checkLogged(dir, expected, "write after torn tail");
+
+            msg += "\n" + INDENT_WIDTH_1 + "Writing after the log failed...";
+            lbst = LoggedBinarySearchTree.open(dir, new BinarySearchTree<Integer>(), KeyCodec.INTEGER);
+            lbst.close();
+            try {
+                lbst.insert(2000);
+                errors += String.format(FORMAT_2, "*insert(2000):", "succeeded on a closed log");
+            }
+            catch (IOException ex) {
+                if (lbst.find(2000) || lbst.size() != expected.size()) {
+                    errors += String.format(FORMAT_2, "*insert(2000):", "applied although it failed");
+                }
+            }
+            errors += checkLogged(dir, expected, "failed write");
+
+            msg += "\n" + INDENT_WIDTH_1 + "Writing without waiting for the log...";
+            lbst = LoggedBinarySearchTree.open(dir, new BinarySearchTree<Integer>(), KeyCodec.INTEGER);
+            lbst.setSyncOnWrite(false);
+            lbst.insert(3000);
+            if (lbst.find(3000)) {
+                errors += String.format(FORMAT_2, "*find(3000):", "saw a write before it was durable");
+            }
+            if (lbst.add(3000)) {
+                errors += String.format(FORMAT_2, "*add(3000):", "inserted a value waiting to be applied");
+            }
+            lbst.sync();
+            expected.add(3000);
+            if (!lbst.find(3000)) {
+                errors += String.format(FORMAT_2, "*find(3000):", "missed a durable write");
+            }
+
+            msg += "\n" + INDENT_WIDTH_1 + "Replaying the log over a checkpoint...";
+            lbst.setSyncOnWrite(true);
+            lbst.checkpoint();
+            if (Files.size(log) != 0) {
+                errors += String.format(FORMAT_2, "*checkpoint():", "did not start the log over");
+            }
+            for (int i = 0; i < 50; i++) {
+                int key = random.nextInt(200);
+                lbst.add(key);
+                expected.add(key);
+            }
+            lbst.close();
+            errors += checkLogged(dir, expected, "checkpoint");
+
+            msg += "\n" + INDENT_WIDTH_1 + "Replaying a whole log left next to a new snapshot...";
+            lbst = LoggedBinarySearchTree.open(dir, new BinarySearchTree<Integer>(), KeyCodec.INTEGER);
+            byte[] fullLog = Files.readAllBytes(log);
+            lbst.checkpoint();
+            lbst.close();
+            Files.write(log, fullLog);
+            errors += checkLogged(dir, expected, "crash during checkpoint");
+
+            msg += "\n" + INDENT_WIDTH_1 + "Opening into a tree which is not empty...";
+            try {
+                LoggedBinarySearchTree.open(dir, new BinarySearchTree<>(new Integer[] {1}), KeyCodec.INTEGER).close();
+                errors += String.format(FORMAT_2, "*open():", "accepted a tree which is not empty");
+            }
+            catch (IllegalArgumentException ex) {
+                msg += String.format(FORMAT_2, "open():", ex.getMessage());
+            }
+
+            loggedTestPassed = errors.isEmpty();
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+        finally {
+            deleteDirectory(dir);
+        }
+
+        if (loggedTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (A recovered tree differs. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    /**
+     * Recovers the logged tree kept in a directory and compares it against the
+     * values which should have survived.
+     *
+     * @return An error line if it differs, or an empty string.
+     */
+    private String checkLogged(Path dir, TreeSet<Integer> expected, String when) throws IOException {
+        try (LoggedBinarySearchTree<Integer> lbst = LoggedBinarySearchTree.open(dir, new BinarySearchTree<Integer>(), KeyCodec.INTEGER)) {
+            String errors = "";
+            if (lbst.size() != expected.size()) {
+                errors += String.format(FORMAT_2, "*Size after " + when + ":", lbst.size() + " instead of " + expected.size());
+            }
+            for (int key = 0; key <= expected.last(); key++) {
+                if (lbst.find(key) != expected.contains(key)) {
+                    errors += String.format(FORMAT_2, "*find(" + key + ") after " + when + ":", lbst.find(key));
+                }
+            }
+            return errors;
+        }
+    }
+
+    //Freezes BinarySearchTrees and LongBinarySearchTrees of several sizes and
+    //  checks find(), floor() and ceiling() of the frozen copies against a
+    //  TreeSet, after the trees themselves have been changed.
+    private void frozenTester() {
+        boolean frozenTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "freeze() Test:");
+        String errors = "";
+        String msg = "";
+
+        try {
+            for (int n : new int[] {0, 1, 2, 7, 100, 1000}) {
+                msg += "\n" + INDENT_WIDTH_1 + "Freezing trees of " + n + " values...";
+                Random random = new Random(n);
+                TreeSet<Integer> expected = new TreeSet<>();
+                BinarySearchTree<Integer> bst = new BinarySearchTree<>();
+                LongBinarySearchTree lbst = new LongBinarySearchTree();
+                while (expected.size() < n) {
+                    int key = random.nextInt(4 * n) * 2;
+                    if (expected.add(key)) {
+                        bst.insert(key);
+                        lbst.insert(key);
+                    }
+                }
+
+                FrozenTree<Integer> frozen = bst.freeze();
+                FrozenLongTree frozenLong = lbst.freeze();
+                bst.insert(-1);
+                lbst.insert(-1);
+
+                if (frozen.size() != n || frozenLong.size() != n) {
+                    errors += String.format(FORMAT_2, "*Size of " + n + ":", frozen.size() + ", " + frozenLong.size());
+                }
+                for (int key = -2; key <= 8 * n + 1; key++) {
+                    Integer floor = expected.floor(key);
+                    Integer ceiling = expected.ceiling(key);
+                    if (frozen.find(key) != expected.contains(key)
+                            || !Objects.equals(frozen.floor(key), floor)
+                            || !Objects.equals(frozen.ceiling(key), ceiling)) {
+                        errors += String.format(FORMAT_2, "*FrozenTree at " + key + ":", frozen.floor(key) + ", " + frozen.ceiling(key));
+                    }
+                    if (frozenLong.find(key) != expected.contains(key)
+                            || frozenLong.floor(key).isPresent() != (floor != null)
+                            || (floor != null && frozenLong.floor(key).getAsLong() != floor)
+                            || frozenLong.ceiling(key).isPresent() != (ceiling != null)
+                            || (ceiling != null && frozenLong.ceiling(key).getAsLong() != ceiling)) {
+                        errors += String.format(FORMAT_2, "*FrozenLongTree at " + key + ":", frozenLong.floor(key) + ", " + frozenLong.ceiling(key));
+                    }
+                }
+            }
+
+            frozenTestPassed = errors.isEmpty();
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (frozenTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (A frozen tree differs from its source. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    //Inserts into and deletes from B+ trees of fan-out 3 and 4, small enough that
+    //  nearly every change splits, borrows or merges, checking after each one that
+    //  the leaves are linked in ascending order, that all of them are equally deep,
+    //  that every node but the root is at least half full, and that the traversals
+    //  visit every node. Also checks that range() rejects lo > hi.
+    private void bPlusTreeTester() {
+        boolean bPlusTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "BPlusTree Test:");
+        String errors = "";
+        String msg = "";
+
+        try {
+            for (int fanOut : new int[] {3, 4}) {
+                Random random = new Random(fanOut);
+                BPlusTree<Integer> tree = new BPlusTree<>(fanOut);
+                TreeSet<Integer> expected = new TreeSet<>();
+
+                msg += "\n" + INDENT_WIDTH_1 + "Fan-out " + fanOut + ": inserting ascending, then random values...";
+                for (int key = 0; key < 40; key += 2) {
+                    tree.insert(key);
+                    expected.add(key);
+                    errors += checkBPlus(tree, expected, fanOut, "inserting " + key);
+                }
+                for (int i = 0; i < 200; i++) {
+                    int key = random.nextInt(300);
+                    if (tree.add(key) != expected.add(key)) {
+                        errors += String.format(FORMAT_2, "*add(" + key + "):", "disagrees with TreeSet");
+                    }
+                    errors += checkBPlus(tree, expected, fanOut, "inserting " + key);
+                }
+
+                msg += "\n" + INDENT_WIDTH_1 + "Fan-out " + fanOut + ": deleting random values, then all the rest...";
+                for (int i = 0; i < 200; i++) {
+                    int key = random.nextInt(300);
+                    if (tree.delete(key) != expected.remove(key)) {
+                        errors += String.format(FORMAT_2, "*delete(" + key + "):", "disagrees with TreeSet");
+                    }
+                    errors += checkBPlus(tree, expected, fanOut, "deleting " + key);
+                }
+                for (Integer key : new ArrayList<>(expected)) {
+                    tree.delete(key);
+                    expected.remove(key);
+                    errors += checkBPlus(tree, expected, fanOut, "deleting " + key);
+                }
+                if (!tree.isEmpty() || tree.height() != 0) {
+                    errors += String.format(FORMAT_2, "*Emptied tree:", tree.size() + " values, height " + tree.height());
+                }
+
+                msg += "\n" + INDENT_WIDTH_1 + "Fan-out " + fanOut + ": calling range() with lo > hi...";
+                try {
+                    tree.range(5, 4);
+                    errors += String.format(FORMAT_2, "*range(5, 4):", "was accepted");
+                }
+                catch (IllegalArgumentException ex) {
+                    //Rejected, as BinarySearchTree.range() rejects it.
+                }
+            }
+
+            bPlusTestPassed = errors.isEmpty();
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (bPlusTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (A B+ tree is malformed or differs from a TreeSet. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    /**
+     * Walks the leaves of a B+ tree along their links and compares them with the
+     * expected values, checks every node from the root down, and checks that the
+     * node traversals each visit every node once, leaves last in breadthfirst.
+     *
+     * @return An error line for every rule broken, or an empty string.
+     */
+    private String checkBPlus(BPlusTree<Integer> tree, TreeSet<Integer> expected, int fanOut, String when) {
+        String errors = "";
+        if (tree.size() != expected.size()) {
+            errors += String.format(FORMAT_2, "*Size after " + when + ":", tree.size() + " instead of " + expected.size());
+        }
+
+        BTreeNode<Integer> leaf = tree.root;
+        while (!leaf.isLeaf()) {
+            leaf = leaf.getChild(0);
+        }
+        ArrayList<Integer> linked = new ArrayList<>();
+        ArrayList<BTreeNode<Integer>> leaves = new ArrayList<>();
+        for (; leaf != null; leaf = leaf.getNext()) {
+            leaves.add(leaf);
+            for (int i = 0; i < leaf.getCount(); i++) {
+                linked.add(leaf.getKey(i));
+            }
+        }
+        if (!linked.equals(new ArrayList<>(expected))) {
+            errors += String.format(FORMAT_2, "*Leaf links after " + when + ":", linked);
+        }
+
+        int nodes = countBPlus(tree.root, tree.root, null, null, 0, tree.height(), fanOut);
+        if (nodes < 0) {
+            errors += String.format(FORMAT_2, "*Nodes after " + when + ":", "uneven, out of order or under half full");
+            return errors;
+        }
+
+        ArrayList<BTreeNode<Integer>> preorder = tree.preorder();
+        ArrayList<BTreeNode<Integer>> postorder = tree.postorder();
+        ArrayList<BTreeNode<Integer>> breadthfirst = tree.breadthfirst();
+        if (preorder.size() != nodes || postorder.size() != nodes || breadthfirst.size() != nodes
+                || preorder.get(0) != tree.root || postorder.get(nodes - 1) != tree.root
+                || breadthfirst.get(0) != tree.root || leaves.size() > nodes
+                || !breadthfirst.subList(nodes - leaves.size(), nodes).equals(leaves)) {
+            errors += String.format(FORMAT_2, "*Traversals after " + when + ":", preorder.size() + ", " + postorder.size() + ", " + breadthfirst.size() + " of " + nodes + " nodes");
+        }
+
+        return errors;
+    }
+
+    /**
+     * Counts the nodes of a B+ subtree whose values must lie in [lo, hi), checking
+     * that its values are sorted, that its leaves are at the given depth, and that
+     * every node but the root holds between (fanOut - 1) / 2 and fanOut - 1 values.
+     *
+     * @return The number of nodes, or -1 if a rule is broken.
+     */
+    private int countBPlus(BTreeNode<Integer> node, BTreeNode<Integer> root, Integer lo, Integer hi, int depth,
+            int height, int fanOut) {
+        int count = node.getCount();
+        if (count > fanOut - 1 || (node != root && count < (fanOut - 1) / 2)) {
+            return -1;
+        }
+        for (int i = 0; i < count; i++) {
+            Integer key = node.getKey(i);
+            if ((lo != null && key < lo) || (hi != null && key >= hi) || (i > 0 && node.getKey(i - 1) >= key)) {
+                return -1;
+            }
+        }
+        if (node.isLeaf()) {
+            return (depth == height) ? 1 : -1;
+        }
+
+        int nodes = 1;
+        for (int c = 0; c <= count; c++) {
+            Integer childLo = (c == 0) ? lo : node.getKey(c - 1);
+            Integer childHi = (c == count) ? hi : node.getKey(c);
+            int child = countBPlus(node.getChild(c), root, childLo, childHi, depth + 1, height, fanOut);
+            if (child < 0) {
+                return -1;
+            }
+            nodes += child;
+        }
+        return nodes;
+    }
+
+    //Holds the force of a LoggedBinarySearchTree's first group while five more
+    //  writers arrive, and checks that the five share the next force, that each
+    //  record is forced exactly once, and that every write is durable afterwards.
+    //  Then fails the force of a group of five, and checks that every writer in it
+    //  and a checkpoint waiting on it fail, and that none of the writes is applied.
+    private void groupCommitTester() {
+        boolean groupTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "Logged group commit Test:");
+        String errors = "";
+        String msg = "";
+
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("group");
+            final int writers = 5;
+
+            msg += "\n" + INDENT_WIDTH_1 + "Writing from " + writers + " threads while a force is held...";
+            GatedChannel gate = new GatedChannel();
+            LoggedBinarySearchTree<Integer> lbst = LoggedBinarySearchTree.open(dir, new BinarySearchTree<Integer>(), KeyCodec.INTEGER, gate::wrap);
+            AtomicInteger succeeded = new AtomicInteger();
+            AtomicInteger failed = new AtomicInteger();
+            gate.hold = true;
+            Thread first = startWriter(lbst, 0, succeeded, failed);
+            gate.awaitHeld();
+            gate.hold = false;
+            Thread[] late = new Thread[writers];
+            for (int w = 0; w < writers; w++) {
+                late[w] = startWriter(lbst, w + 1, succeeded, failed);
+            }
+            errors += awaitWaiting(late, "while the first force is held");
+            if (lbst.find(0) || lbst.size() != 0) {
+                errors += String.format(FORMAT_2, "*Held force:", "a write was applied before it was durable");
+            }
+            gate.release();
+            first.join();
+            for (Thread writer : late) {
+                writer.join();
+            }
+
+            if (succeeded.get() != writers + 1 || failed.get() != 0) {
+                errors += String.format(FORMAT_2, "*Writers:", succeeded.get() + " succeeded, " + failed.get() + " failed");
+            }
+            if (!gate.groups.equals(Arrays.asList(1L, (long) writers))) {
+                errors += String.format(FORMAT_2, "*Records per force:", gate.groups);
+            }
+            for (int key = 0; key <= writers; key++) {
+                if (!lbst.find(key)) {
+                    errors += String.format(FORMAT_2, "*find(" + key + "):", "missed a durable write");
+                }
+            }
+            lbst.close();
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int key = 0; key <= writers; key++) {
+                expected.add(key);
+            }
+            errors += checkLogged(dir, expected, "group commit");
+
+            msg += "\n" + INDENT_WIDTH_1 + "Failing the force of a group of " + writers + " writers and a checkpoint...";
+            gate = new GatedChannel();
+            lbst = LoggedBinarySearchTree.open(dir, new BinarySearchTree<Integer>(), KeyCodec.INTEGER, gate::wrap);
+            succeeded.set(0);
+            failed.set(0);
+            gate.hold = true;
+            first = startWriter(lbst, 100, succeeded, failed);
+            gate.awaitHeld();
+            for (int w = 0; w < writers; w++) {
+                late[w] = startWriter(lbst, w + 101, succeeded, failed);
+            }
+            errors += awaitWaiting(late, "before the failing force");
+            gate.release();
+            gate.awaitHeld();
+            gate.hold = false;
+            gate.failNext = true;
+            final LoggedBinarySearchTree<Integer> failing = lbst;
+            final AtomicReference<Exception> checkpointResult = new AtomicReference<>();
+            Thread checkpointer = new Thread(() -> {
+                try {
+                    failing.checkpoint();
+                }
+                catch (Exception ex) {
+                    checkpointResult.set(ex);
+                }
+            });
+            checkpointer.start();
+            errors += awaitWaiting(new Thread[] {checkpointer}, "while the failing force is held");
+            gate.release();
+            first.join();
+            for (Thread writer : late) {
+                writer.join();
+            }
+            checkpointer.join();
+
+            if (succeeded.get() != 1 || failed.get() != writers) {
+                errors += String.format(FORMAT_2, "*Writers:", succeeded.get() + " succeeded, " + failed.get() + " failed");
+            }
+            if (!(checkpointResult.get() instanceof IOException)) {
+                errors += String.format(FORMAT_2, "*checkpoint():", "did not fail after the failed force, " + checkpointResult.get());
+            }
+            if (Files.exists(dir.resolve("snapshot"))) {
+                errors += String.format(FORMAT_2, "*checkpoint():", "saved a snapshot over a failed log");
+            }
+            if (!gate.groups.equals(Arrays.asList(1L, (long) writers))) {
+                errors += String.format(FORMAT_2, "*Records per force:", gate.groups);
+            }
+            if (!lbst.find(100) || lbst.size() != expected.size() + 1) {
+                errors += String.format(FORMAT_2, "*Failed group:", "tree holds " + lbst.size() + " values");
+            }
+            for (int key = 101; key <= 100 + writers; key++) {
+                if (lbst.find(key)) {
+                    errors += String.format(FORMAT_2, "*find(" + key + "):", "saw a write whose force failed");
+                }
+            }
+            try {
+                lbst.insert(200);
+                errors += String.format(FORMAT_2, "*insert(200):", "succeeded after the log failed");
+            }
+            catch (IOException ex) {
+                //Every write fails once the log has.
+            }
+            try {
+                lbst.close();
+            }
+            catch (IOException ex) {
+                //Closing syncs, which fails too; the log is closed all the same.
+            }
+
+            groupTestPassed = errors.isEmpty();
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+        finally {
+            deleteDirectory(dir);
+        }
+
+        if (groupTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (Writes were not committed in groups. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    /**
+     * Starts a thread which adds the given value to a logged tree, counting
+     * whether the write succeeded or failed.
+     */
+    private Thread startWriter(LoggedBinarySearchTree<Integer> lbst, int key, AtomicInteger succeeded,
+            AtomicInteger failed) {
+        Thread writer = new Thread(() -> {
+            try {
+                if (lbst.add(key)) {
+                    succeeded.incrementAndGet();
+                }
+            }
+            catch (IOException ex) {
+                failed.incrementAndGet();
+            }
+        });
+        writer.start();
+        return writer;
+    }
+
+    /**
+     * Waits, for up to ten seconds, until each of the given threads is waiting on
+     * a monitor, which a writer of a logged tree only does once it has appended
+     * its record and found another writer forcing the log.
+     *
+     * @return An error line if a thread never waited, or an empty string.
+     */
+    private String awaitWaiting(Thread[] threads, String when) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        for (Thread thread : threads) {
+            while (thread.getState() != Thread.State.WAITING) {
+                if (System.currentTimeMillis() > deadline) {
+                    return String.format(FORMAT_2, "*Threads " + when + ":", thread.getState());
+                }
+                Thread.sleep(1);
+            }
+        }
+        return "";
+    }
+
+    /**
+     * A file channel which passes everything on to the log of a logged tree,
+     * except that it records how many records each force covers, can hold
+     * forces until they are released, and can make the next one fail.
+     */
+    private static final class GatedChannel extends FileChannel {
+
+        /**
+         * The size of an Integer record: its length, checksum, kind and value.
+         */
+        private static final int RECORD = 13;
+
+        private FileChannel channel;
+        private long written = 0;
+        private final List<Long> groups = Collections.synchronizedList(new ArrayList<Long>());
+        private final Semaphore held = new Semaphore(0);
+        private final Semaphore released = new Semaphore(0);
+        private volatile boolean hold = false;
+        private volatile boolean failNext = false;
+
+        private FileChannel wrap(FileChannel channel) {
+            this.channel = channel;
+            return this;
+        }
+
+        private void awaitHeld() throws InterruptedException {
+            held.acquire();
+        }
+
+        private void release() {
+            released.release();
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (written > 0) {
+                groups.add(written / RECORD);
+            }
+            written = 0;
+            if (hold) {
+                held.release();
+                released.acquireUninterruptibly();
+            }
+            if (failNext) {
+                failNext = false;
+                throw new IOException("Failed on purpose");
+            }
+            channel.force(metaData);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            int n = channel.write(src);
+            written += n;
+            return n;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return channel.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            long n = channel.write(srcs, offset, length);
+            written += n;
+            return n;
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return channel.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return channel.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return channel.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+    }
+
+    //Inserts into, deletes from and reinserts into an ArrayBinarySearchTree which
+    //  starts with a single slot, checking it against a TreeSet and against the
+    //  shape of a BinarySearchTree given the same operations, that duplicates are
+    //  rejected, and that reinserting after deletes reuses the freed slots.
+    private void arrayTester() {
+        boolean arrayTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "ArrayBinarySearchTree Test:");
+        String errors = "";
+        String msg = "";
+
+        try {
+            Random random = new Random(4);
+            ArrayBinarySearchTree<Integer> abst = new ArrayBinarySearchTree<>(1);
+            BinarySearchTree<Integer> shape = new BinarySearchTree<>();
+            TreeSet<Integer> expected = new TreeSet<>();
+
+            msg += "\n" + INDENT_WIDTH_1 + "Inserting 500 values, growing from a single slot...";
+            while (expected.size() < 500) {
+                int key = random.nextInt(1000);
+                if (expected.add(key)) {
+                    abst.insert(key);
+                    shape.insert(key);
+                }
+            }
+            errors += checkArrayTree(abst, shape, expected, "inserts");
+            int peak = abst.slotsUsed();
+            if (peak != 500) {
+                errors += String.format(FORMAT_2, "*Slots after inserts:", peak);
+            }
+
+            msg += "\n" + INDENT_WIDTH_1 + "Inserting duplicates...";
+            for (Integer key : new Integer[] {expected.first(), expected.last(), abst.preorder().get(0)}) {
+                try {
+                    abst.insert(key);
+                    errors += String.format(FORMAT_2, "*insert(" + key + "):", "accepted a duplicate");
+                }
+                catch (DuplicateItemExceptionBST ex) {
+                    if (abst.size() != expected.size()) {
+                        errors += String.format(FORMAT_2, "*insert(" + key + "):", "changed the size");
+                    }
+                }
+            }
+
+            msg += "\n" + INDENT_WIDTH_1 + "Deleting 250 values and some which are missing...";
+            ArrayList<Integer> keys = new ArrayList<>(expected);
+            Collections.shuffle(keys, random);
+            for (Integer key : keys.subList(0, 250)) {
+                abst.delete(key);
+                shape.delete(key);
+                expected.remove(key);
+            }
+            abst.delete(-1);
+            abst.delete(1000);
+            errors += checkArrayTree(abst, shape, expected, "deletes");
+
+            msg += "\n" + INDENT_WIDTH_1 + "Reinserting 250 values into the freed slots...";
+            while (expected.size() < 500) {
+                int key = random.nextInt(1000);
+                if (expected.add(key)) {
+                    abst.insert(key);
+                    shape.insert(key);
+                }
+            }
+            errors += checkArrayTree(abst, shape, expected, "reinserts");
+            if (abst.slotsUsed() != peak) {
+                errors += String.format(FORMAT_2, "*Slots after reinserts:", abst.slotsUsed() + " instead of " + peak);
+            }
+
+            msg += "\n" + INDENT_WIDTH_1 + "Deleting every value...";
+            for (Integer key : new ArrayList<>(expected)) {
+                abst.delete(key);
+            }
+            if (!abst.isEmpty() || abst.size() != 0 || abst.height() != -1 || !abst.inorder().isEmpty()) {
+                errors += String.format(FORMAT_2, "*Emptied tree:", abst.size() + " values");
+            }
+
+            arrayTestPassed = errors.isEmpty();
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (arrayTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (The tree differs from a TreeSet. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    /**
+     * Compares an ArrayBinarySearchTree with the values it should hold, and its
+     * traversals and height with those of a BinarySearchTree given the same
+     * operations.
+     *
+     * @return An error line for every difference, or an empty string.
+     */
+    private String checkArrayTree(ArrayBinarySearchTree<Integer> abst, BinarySearchTree<Integer> shape,
+            TreeSet<Integer> expected, String when) {
+        String errors = "";
+        if (abst.size() != expected.size() || !abst.inorder().equals(new ArrayList<>(expected))) {
+            errors += String.format(FORMAT_2, "*inorder() after " + when + ":", abst.size() + " values");
+        }
+        for (int key = -1; key <= 1000; key++) {
+            if (abst.find(key) != expected.contains(key)) {
+                errors += String.format(FORMAT_2, "*find(" + key + ") after " + when + ":", abst.find(key));
+            }
+        }
+        if (!abst.preorder().equals(values(shape.preorder())) || !abst.postorder().equals(values(shape.postorder()))
+                || !abst.breadthfirst().equals(values(shape.breadthfirst())) || abst.height() != walkHeight(shape.root)) {
+            errors += String.format(FORMAT_2, "*Shape after " + when + ":", "differs from a BinarySearchTree");
+        }
+        return errors;
+    }
+
+    /**
+     * Returns the values held by the given nodes, in the same order.
+     */
+    private <E extends Comparable<E>> ArrayList<E> values(ArrayList<BSTNode<E>> nodes) {
+        ArrayList<E> values = new ArrayList<>(nodes.size());
+        for (BSTNode<E> node : nodes) {
+            values.add(node.getData());
+        }
+        return values;
+    }
+
+    //Inserts into, deletes from and reinserts into an IntBinarySearchTree and a
+    //  LongBinarySearchTree, whose values span the whole range of long, checking
+    //  find() and inorder() against a TreeSet, the other traversals against a
+    //  BinarySearchTree given the same operations, and that duplicates are
+    //  rejected without changing either tree.
+    private void primitiveTester() {
+        boolean primitiveTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "Int/LongBinarySearchTree Test:");
+        String errors = "";
+        String msg = "";
+
+        try {
+            Random random = new Random(5);
+            IntBinarySearchTree ibst = new IntBinarySearchTree(1);
+            LongBinarySearchTree lbst = new LongBinarySearchTree(1);
+            BinarySearchTree<Integer> intShape = new BinarySearchTree<>();
+            BinarySearchTree<Long> longShape = new BinarySearchTree<>();
+            TreeSet<Integer> expected = new TreeSet<>();
+
+            msg += "\n" + INDENT_WIDTH_1 + "Inserting 500 values...";
+            while (expected.size() < 500) {
+                int key = random.nextInt(1000) - 500;
+                if (expected.add(key)) {
+                    ibst.insert(key);
+                    lbst.insert(widen(key));
+                    intShape.insert(key);
+                    longShape.insert(widen(key));
+                }
+            }
+            errors += checkPrimitiveTrees(ibst, lbst, intShape, longShape, expected, "inserts");
+
+            msg += "\n" + INDENT_WIDTH_1 + "Inserting duplicates...";
+            for (int key : new int[] {expected.first(), expected.last(), ibst.preorder()[0]}) {
+                try {
+                    ibst.insert(key);
+                    errors += String.format(FORMAT_2, "*Int insert(" + key + "):", "accepted a duplicate");
+                }
+                catch (DuplicateItemExceptionBST ex) {
+                    //Rejected, leaving the tree as it was; checked below.
+                }
+                try {
+                    lbst.insert(widen(key));
+                    errors += String.format(FORMAT_2, "*Long insert(" + widen(key) + "):", "accepted a duplicate");
+                }
+                catch (DuplicateItemExceptionBST ex) {
+                    //Rejected, leaving the tree as it was; checked below.
+                }
+            }
+            errors += checkPrimitiveTrees(ibst, lbst, intShape, longShape, expected, "duplicates");
+
+            msg += "\n" + INDENT_WIDTH_1 + "Deleting 250 values and some which are missing...";
+            ArrayList<Integer> keys = new ArrayList<>(expected);
+            Collections.shuffle(keys, random);
+            for (Integer key : keys.subList(0, 250)) {
+                ibst.delete(key);
+                lbst.delete(widen(key));
+                intShape.delete(key);
+                longShape.delete(widen(key));
+                expected.remove(key);
+            }
+            ibst.delete(Integer.MIN_VALUE);
+            lbst.delete(Long.MAX_VALUE);
+            errors += checkPrimitiveTrees(ibst, lbst, intShape, longShape, expected, "deletes");
+
+            msg += "\n" + INDENT_WIDTH_1 + "Reinserting 250 values...";
+            while (expected.size() < 500) {
+                int key = random.nextInt(1000) - 500;
+                if (expected.add(key)) {
+                    ibst.insert(key);
+                    lbst.insert(widen(key));
+                    intShape.insert(key);
+                    longShape.insert(widen(key));
+                }
+            }
+            errors += checkPrimitiveTrees(ibst, lbst, intShape, longShape, expected, "reinserts");
+
+            msg += "\n" + INDENT_WIDTH_1 + "Deleting every value...";
+            for (Integer key : expected) {
+                ibst.delete(key);
+                lbst.delete(widen(key));
+            }
+            if (!ibst.isEmpty() || ibst.height() != -1 || ibst.inorder().length != 0
+                    || !lbst.isEmpty() || lbst.height() != -1 || lbst.inorder().length != 0) {
+                errors += String.format(FORMAT_2, "*Emptied trees:", ibst.size() + ", " + lbst.size() + " values");
+            }
+
+            primitiveTestPassed = errors.isEmpty();
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (primitiveTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (A tree differs from a TreeSet. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    /**
+     * Spreads an int test value over the range of long, keeping its order, so that
+     * the LongBinarySearchTree compares values no int could hold; the low 32 bits
+     * run in the opposite order, so comparing them as ints goes wrong.
+     */
+    private long widen(int key) {
+        return key * ((1L << 53) - 7919);
+    }
+
+    /**
+     * Compares an IntBinarySearchTree and a LongBinarySearchTree with the values
+     * they should hold, and their traversals and heights with those of the
+     * BinarySearchTrees given the same operations.
+     *
+     * @return An error line for every difference, or an empty string.
+     */
+    private String checkPrimitiveTrees(IntBinarySearchTree ibst, LongBinarySearchTree lbst,
+            BinarySearchTree<Integer> intShape, BinarySearchTree<Long> longShape, TreeSet<Integer> expected,
+            String when) {
+        String errors = "";
+        int[] ints = new int[expected.size()];
+        long[] longs = new long[expected.size()];
+        int i = 0;
+        for (Integer key : expected) {
+            ints[i] = key;
+            longs[i++] = widen(key);
+        }
+        if (ibst.size() != ints.length || !Arrays.equals(ibst.inorder(), ints)) {
+            errors += String.format(FORMAT_2, "*Int inorder() after " + when + ":", ibst.size() + " values");
+        }
+        if (lbst.size() != longs.length || !Arrays.equals(lbst.inorder(), longs)) {
+            errors += String.format(FORMAT_2, "*Long inorder() after " + when + ":", lbst.size() + " values");
+        }
+        for (int key = -501; key <= 500; key++) {
+            if (ibst.find(key) != expected.contains(key)) {
+                errors += String.format(FORMAT_2, "*Int find(" + key + ") after " + when + ":", ibst.find(key));
+            }
+            if (lbst.find(widen(key)) != expected.contains(key) || lbst.find(widen(key) + 1)) {
+                errors += String.format(FORMAT_2, "*Long find(" + widen(key) + ") after " + when + ":", lbst.find(widen(key)));
+            }
+        }
+
+        if (!Arrays.equals(ibst.preorder(), intValues(values(intShape.preorder())))
+                || !Arrays.equals(ibst.postorder(), intValues(values(intShape.postorder())))
+                || !Arrays.equals(ibst.breadthfirst(), intValues(values(intShape.breadthfirst())))
+                || ibst.height() != walkHeight(intShape.root)) {
+            errors += String.format(FORMAT_2, "*Int shape after " + when + ":", "differs from a BinarySearchTree");
+        }
+        if (!Arrays.equals(lbst.preorder(), longValues(values(longShape.preorder())))
+                || !Arrays.equals(lbst.postorder(), longValues(values(longShape.postorder())))
+                || !Arrays.equals(lbst.breadthfirst(), longValues(values(longShape.breadthfirst())))
+                || lbst.height() != ibst.height()) {
+            errors += String.format(FORMAT_2, "*Long shape after " + when + ":", "differs from a BinarySearchTree");
+        }
+        return errors;
+    }
+
+    private int[] intValues(ArrayList<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private long[] longValues(ArrayList<Long> values) {
+        return values.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    //Compares range(), headSet(), tailSet() and countRange() of a BinarySearchTree
+    //  and a RedBlackTree with TreeSet's subSet(), headSet() and tailSet() for
+    //  every pair of bounds around and between their values, empty ranges and
+    //  lo == hi included, on an empty tree too; and checks that lo > hi throws.
+    private void rangeTester() {
+        boolean rangeTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "range()/countRange() Test:");
+        String errors = "";
+        String msg = "";
+
+        try {
+            Random random = new Random(14);
+            TreeSet<Integer> expected = new TreeSet<>();
+            BinarySearchTree<Integer> bst = new BinarySearchTree<>();
+            RedBlackTree<Integer> rbt = new RedBlackTree<>();
+
+            msg += "\n" + INDENT_WIDTH_1 + "Comparing the views of empty trees...";
+            errors += checkRanges(bst, expected, "empty BinarySearchTree");
+
+            msg += "\n" + INDENT_WIDTH_1 + "Comparing the views of trees of 100 even values...";
+            while (expected.size() < 100) {
+                int key = 2 * random.nextInt(150);
+                if (expected.add(key)) {
+                    bst.insert(key);
+                    rbt.insert(key);
+                }
+            }
+            errors += checkRanges(bst, expected, "BinarySearchTree");
+            errors += checkRanges(rbt, expected, "RedBlackTree");
+
+            msg += "\n" + INDENT_WIDTH_1 + "Calling range() and countRange() with lo > hi...";
+            try {
+                bst.range(5, 4);
+                errors += String.format(FORMAT_2, "*range(5, 4):", "was accepted");
+            }
+            catch (IllegalArgumentException ex) {
+                //Rejected, as TreeSet.subSet() rejects it.
+            }
+            try {
+                bst.countRange(5, 4);
+                errors += String.format(FORMAT_2, "*countRange(5, 4):", "was accepted");
+            }
+            catch (IllegalArgumentException ex) {
+                //Rejected, as TreeSet.subSet() rejects it.
+            }
+
+            rangeTestPassed = errors.isEmpty();
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (rangeTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (A view differs from TreeSet's. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    /**
+     * Compares the range views of a tree with those of a TreeSet for every pair of
+     * bounds from just below its values to just above them, odd bounds falling
+     * between two values and even ones on them.
+     *
+     * @return An error line for every view which differs, or an empty string.
+     */
+    private String checkRanges(BinarySearchTree<Integer> tree, TreeSet<Integer> expected, String name) {
+        String errors = "";
+        for (int lo = -2; lo <= 302; lo++) {
+            if (!toList(tree.headSet(lo)).equals(new ArrayList<>(expected.headSet(lo, false)))) {
+                errors += String.format(FORMAT_2, "*" + name + " headSet(" + lo + "):", toList(tree.headSet(lo)));
+            }
+            if (!toList(tree.tailSet(lo)).equals(new ArrayList<>(expected.tailSet(lo, true)))) {
+                errors += String.format(FORMAT_2, "*" + name + " tailSet(" + lo + "):", toList(tree.tailSet(lo)));
+            }
+            for (int hi = lo; hi <= 302; hi += 1 + (hi - lo) / 4) {
+                ArrayList<Integer> sub = new ArrayList<>(expected.subSet(lo, true, hi, false));
+                if (!toList(tree.range(lo, hi)).equals(sub)) {
+                    errors += String.format(FORMAT_2, "*" + name + " range(" + lo + ", " + hi + "):", toList(tree.range(lo, hi)));
+                }
+                if (tree.countRange(lo, hi) != sub.size()) {
+                    errors += String.format(FORMAT_2, "*" + name + " countRange(" + lo + ", " + hi + "):", tree.countRange(lo, hi));
+                }
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Collects the values of the given view into a list, in the order it returns
+     * them.
+     */
+    private <E> ArrayList<E> toList(Iterable<E> view) {
+        ArrayList<E> list = new ArrayList<>();
+        for (E value : view) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    //Walks the lazy iterators of empty, single node, random, sorted and red-black
+    //  trees and compares each with the list its traversal returns; then stops
+    //  each of them early, and checks that each one throws NoSuchElementException
+    //  once it is exhausted.
+    private void iteratorTester() {
+        boolean iteratorTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "Iterator Test:");
+        String errors = "";
+        String msg = "";
+
+        try {
+            Random random = new Random(10);
+            BinarySearchTree<Integer> randomTree = new BinarySearchTree<>();
+            RedBlackTree<Integer> rbt = new RedBlackTree<>();
+            for (int i = 0; i < 300; i++) {
+                int key = random.nextInt(1000);
+                randomTree.add(key);
+                rbt.add(key);
+            }
+            for (int i = 0; i < 100; i++) {
+                int key = random.nextInt(1000);
+                randomTree.delete(key);
+                rbt.delete(key);
+            }
+            BinarySearchTree<Integer> sorted = new BinarySearchTree<>();
+            for (int key = 0; key < 50; key++) {
+                sorted.insert(key);
+            }
+
+            String[] names = {"empty", "single", "random", "sorted", "red-black"};
+            ArrayList<BinarySearchTree<Integer>> trees = new ArrayList<>();
+            trees.add(new BinarySearchTree<Integer>());
+            trees.add(new BinarySearchTree<>(new Integer[] {7}));
+            trees.add(randomTree);
+            trees.add(sorted);
+            trees.add(rbt);
+
+            for (int t = 0; t < trees.size(); t++) {
+                msg += "\n" + INDENT_WIDTH_1 + "Walking the iterators of the " + names[t] + " tree...";
+                BinarySearchTree<Integer> tree = trees.get(t);
+                ArrayList<ArrayList<BSTNode<Integer>>> lists = new ArrayList<>();
+                lists.add(tree.preorder());
+                lists.add(tree.inorder());
+                lists.add(tree.postorder());
+                lists.add(tree.breadthfirst());
+                String[] orders = {"preorder", "inorder", "postorder", "breadthfirst"};
+
+                for (int o = 0; o < orders.length; o++) {
+                    String label = names[t] + " " + orders[o];
+                    ArrayList<BSTNode<Integer>> list = lists.get(o);
+                    Iterator<BSTNode<Integer>> it = nodeIterator(tree, o);
+                    ArrayList<BSTNode<Integer>> walked = new ArrayList<>();
+                    while (it.hasNext()) {
+                        walked.add(it.next());
+                    }
+                    if (!walked.equals(list)) {
+                        errors += String.format(FORMAT_2, "*" + label + " iterator:", values(walked));
+                    }
+                    errors += checkExhausted(it, label);
+
+                    int stop = list.size() / 3;
+                    it = nodeIterator(tree, o);
+                    for (int i = 0; i < stop; i++) {
+                        if (it.next() != list.get(i)) {
+                            errors += String.format(FORMAT_2, "*" + label + " early exit:", "differs at " + i);
+                            break;
+                        }
+                    }
+                    if (it.hasNext() != (stop < list.size())) {
+                        errors += String.format(FORMAT_2, "*" + label + " early exit:", "hasNext() is " + it.hasNext());
+                    }
+                }
+
+                Iterator<Integer> it = tree.iterator();
+                if (!toList(tree).equals(values(lists.get(1)))) {
+                    errors += String.format(FORMAT_2, "*" + names[t] + " iterator():", toList(tree));
+                }
+                while (it.hasNext()) {
+                    it.next();
+                }
+                errors += checkExhausted(it, names[t] + " iterator()");
+            }
+
+            iteratorTestPassed = errors.isEmpty();
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (iteratorTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (An iterator differs from its traversal. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    /**
+     * Returns a fresh preorder, inorder, postorder or breadthfirst iterator, for
+     * an order of 0, 1, 2 or 3.
+     */
+    private Iterator<BSTNode<Integer>> nodeIterator(BinarySearchTree<Integer> tree, int order) {
+        switch (order) {
+            case 0:
+                return tree.preorderIterator();
+            case 1:
+                return tree.inorderIterator();
+            case 2:
+                return tree.postorderIterator();
+            default:
+                return tree.breadthfirstIterator();
+        }
+    }
+
+    /**
+     * Checks that an exhausted iterator says so and throws NoSuchElementException
+     * when it is asked for more.
+     *
+     * @return An error line if it does not, or an empty string.
+     */
+    private String checkExhausted(Iterator<?> it, String label) {
+        if (it.hasNext()) {
+            return String.format(FORMAT_2, "*" + label + " at the end:", "hasNext() is true");
+        }
+        try {
+            it.next();
+            return String.format(FORMAT_2, "*" + label + " at the end:", "next() returned a value");
+        }
+        catch (NoSuchElementException ex) {
+            return "";
+        }
+    }
+
+    //Splits the spliterators of empty, random, sorted and red-black trees as far
+    //  as they go, and checks that every part is SIZED and SUBSIZED, that its size
+    //  is exactly the number of values it then yields, and that the parts yield
+    //  the inorder values in order; then compares stream() and parallelStream()
+    //  with inorder().
+    private void streamTester() {
+        boolean streamTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "stream()/spliterator() Test:");
+        String errors = "";
+        String msg = "";
+
+        try {
+            Random random = new Random(11);
+            BinarySearchTree<Integer> randomTree = new BinarySearchTree<>();
+            RedBlackTree<Integer> rbt = new RedBlackTree<>();
+            for (int i = 0; i < 3000; i++) {
+                int key = random.nextInt(10000);
+                randomTree.add(key);
+                rbt.add(key);
+            }
+            BinarySearchTree<Integer> sorted = new BinarySearchTree<>();
+            for (int key = 0; key < 300; key++) {
+                sorted.insert(key);
+            }
+
+            String[] names = {"empty", "random", "sorted", "red-black"};
+            ArrayList<BinarySearchTree<Integer>> trees = new ArrayList<>();
+            trees.add(new BinarySearchTree<Integer>());
+            trees.add(randomTree);
+            trees.add(sorted);
+            trees.add(rbt);
+
+            for (int t = 0; t < trees.size(); t++) {
+                msg += "\n" + INDENT_WIDTH_1 + "Splitting and streaming the " + names[t] + " tree...";
+                BinarySearchTree<Integer> tree = trees.get(t);
+                ArrayList<Integer> expected = values(tree.inorder());
+
+                ArrayList<Spliterator<Integer>> parts = new ArrayList<>();
+                splitAll(tree.spliterator(), 12, parts);
+                ArrayList<Integer> joined = new ArrayList<>();
+                for (Spliterator<Integer> part : parts) {
+                    int required = Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED | Spliterator.SORTED;
+                    if ((part.characteristics() & required) != required) {
+                        errors += String.format(FORMAT_2, "*" + names[t] + " part characteristics:", part.characteristics());
+                    }
+                    long size = part.getExactSizeIfKnown();
+                    int before = joined.size();
+                    if (part.tryAdvance(joined::add) && part.estimateSize() != size - 1) {
+                        errors += String.format(FORMAT_2, "*" + names[t] + " size after one value:", part.estimateSize() + " instead of " + (size - 1));
+                    }
+                    part.forEachRemaining(joined::add);
+                    if (joined.size() - before != size) {
+                        errors += String.format(FORMAT_2, "*" + names[t] + " part size:", size + " but yielded " + (joined.size() - before));
+                    }
+                }
+                if (!joined.equals(expected)) {
+                    errors += String.format(FORMAT_2, "*" + names[t] + " split parts:", "out of order or incomplete, " + joined.size() + " values");
+                }
+                if (t > 0 && parts.size() < 2) {
+                    errors += String.format(FORMAT_2, "*" + names[t] + " trySplit():", "never split");
+                }
+
+                if (!tree.stream().collect(Collectors.toList()).equals(expected)) {
+                    errors += String.format(FORMAT_2, "*" + names[t] + " stream():", "differs from inorder()");
+                }
+                if (!tree.parallelStream().collect(Collectors.toList()).equals(expected)
+                        || tree.parallelStream().count() != expected.size()
+                        || tree.parallelStream().mapToLong(Integer::longValue).sum() != tree.stream().mapToLong(Integer::longValue).sum()) {
+                    errors += String.format(FORMAT_2, "*" + names[t] + " parallelStream():", "differs from inorder()");
+                }
+            }
+
+            streamTestPassed = errors.isEmpty();
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (streamTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (A stream differs from inorder(). See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    /**
+     * Splits a spliterator, and each of its parts in turn, up to the given depth,
+     * collecting the parts in encounter order.
+     */
+    private <E> void splitAll(Spliterator<E> split, int depth, ArrayList<Spliterator<E>> parts) {
+        Spliterator<E> prefix = (depth > 0) ? split.trySplit() : null;
+        if (prefix == null) {
+            parts.add(split);
+            return;
+        }
+        splitAll(prefix, depth - 1, parts);
+        splitAll(split, depth - 1, parts);
+    }
+
+    //Runs parallelSize(), parallelHeight(), parallelReduce() and parallelForEach()
+    //  on empty, single node, random, sorted and red-black trees with fork
+    //  thresholds small enough that nearly every node forks, and one that never
+    //  forks, comparing each with its sequential counterpart; the reduction builds
+    //  a string, so values combined out of order are caught. Also checks that
+    //  setForkThreshold() rejects values below 1.
+    private void parallelTester() {
+        boolean parallelTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "parallel*() Test:");
+        String errors = "";
+        String msg = "";
+
+        try {
+            Random random = new Random(12);
+            BinarySearchTree<Integer> randomTree = new BinarySearchTree<>();
+            RedBlackTree<Integer> rbt = new RedBlackTree<>();
+            for (int i = 0; i < 2000; i++) {
+                int key = random.nextInt(5000);
+                randomTree.add(key);
+                rbt.add(key);
+            }
+            BinarySearchTree<Integer> sorted = new BinarySearchTree<>();
+            for (int key = 0; key < 500; key++) {
+                sorted.insert(key);
+            }
+
+            String[] names = {"empty", "single", "random", "sorted", "red-black"};
+            ArrayList<BinarySearchTree<Integer>> trees = new ArrayList<>();
+            trees.add(new BinarySearchTree<Integer>());
+            trees.add(new BinarySearchTree<>(new Integer[] {7}));
+            trees.add(randomTree);
+            trees.add(sorted);
+            trees.add(rbt);
+
+            for (int threshold : new int[] {1, 2, 16, Integer.MAX_VALUE}) {
+                msg += "\n" + INDENT_WIDTH_1 + "Running the parallel operations with a fork threshold of " + threshold + "...";
+                for (int t = 0; t < trees.size(); t++) {
+                    String label = names[t] + " at " + threshold;
+                    BinarySearchTree<Integer> tree = trees.get(t);
+                    tree.setForkThreshold(threshold);
+                    ArrayList<Integer> expected = values(tree.inorder());
+
+                    if (tree.parallelSize() != tree.size()) {
+                        errors += String.format(FORMAT_2, "*" + label + " parallelSize():", tree.parallelSize() + " instead of " + tree.size());
+                    }
+                    if (tree.parallelHeight() != walkHeight(tree.root)) {
+                        errors += String.format(FORMAT_2, "*" + label + " parallelHeight():", tree.parallelHeight() + " instead of " + walkHeight(tree.root));
+                    }
+
+                    String joined = "";
+                    for (Integer key : expected) {
+                        joined += key + ",";
+                    }
+                    if (!tree.parallelReduce("", (s, x) -> s + x + ",", String::concat).equals(joined)) {
+                        errors += String.format(FORMAT_2, "*" + label + " parallelReduce():", "out of order");
+                    }
+                    long sum = tree.parallelReduce(0L, (s, x) -> s + x, Long::sum);
+                    if (sum != tree.stream().mapToLong(Integer::longValue).sum()) {
+                        errors += String.format(FORMAT_2, "*" + label + " parallelReduce() sum:", sum);
+                    }
+
+                    ConcurrentLinkedQueue<Integer> seen = new ConcurrentLinkedQueue<>();
+                    tree.parallelForEach(seen::add);
+                    ArrayList<Integer> visited = new ArrayList<>(seen);
+                    Collections.sort(visited);
+                    if (!visited.equals(expected)) {
+                        errors += String.format(FORMAT_2, "*" + label + " parallelForEach():", visited.size() + " values visited");
+                    }
+                }
+            }
+
+            msg += "\n" + INDENT_WIDTH_1 + "Setting fork thresholds below 1...";
+            for (int threshold : new int[] {0, -1, Integer.MIN_VALUE}) {
+                try {
+                    randomTree.setForkThreshold(threshold);
+                    errors += String.format(FORMAT_2, "*setForkThreshold(" + threshold + "):", "was accepted");
+                }
+                catch (IllegalArgumentException ex) {
+                    //Rejected, as it should be.
+                }
+            }
+
+            parallelTestPassed = errors.isEmpty();
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (parallelTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (A parallel result differs. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    //Loads a BinarySearchTree, a RedBlackTree and an AVLTree from sorted input,
+    //  which takes the fast path, and from unsorted input with and without
+    //  duplicates, of several sizes; checks the values, the parent links and
+    //  subtree sizes, that the tree is as short as possible, the red-black
+    //  coloring and the AVL heights, and that the input is left untouched. Then
+    //  inserts into and deletes from the loaded trees and checks them again.
+    private void loadTester() {
+        boolean loadTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "load() Test:");
+        String errors = "";
+        String msg = "";
+
+        try {
+            Random random = new Random(3);
+            for (int n : new int[] {0, 1, 2, 3, 4, 7, 8, 100, 1023, 1024}) {
+                msg += "\n" + INDENT_WIDTH_1 + "Loading " + n + " values, sorted, shuffled and with duplicates...";
+                Integer[] sorted = new Integer[n];
+                for (int i = 0; i < n; i++) {
+                    sorted[i] = 3 * i;
+                }
+                Integer[] shuffled = sorted.clone();
+                Collections.shuffle(Arrays.asList(shuffled), random);
+                Integer[] duplicated = Arrays.copyOf(shuffled, 2 * n);
+                for (int i = n; i < 2 * n; i++) {
+                    duplicated[i] = shuffled[random.nextInt(n)];
+                }
+
+                Integer[][] inputs = {sorted, shuffled, duplicated};
+                String[] kinds = {"sorted", "shuffled", "duplicated"};
+                for (int k = 0; k < inputs.length; k++) {
+                    String when = kinds[k] + " load of " + n;
+                    Integer[] input = inputs[k];
+                    Integer[] copy = input.clone();
+
+                    BinarySearchTree<Integer> bst = new BinarySearchTree<>(new Integer[] {-5, 10000});
+                    RedBlackTree<Integer> rbt = new RedBlackTree<>();
+                    rbt.insert(-5);
+                    AVLTree<Integer> avl = new AVLTree<>();
+                    avl.insert(-5);
+                    bst.load(input);
+                    rbt.load(input);
+                    avl.load(input);
+
+                    if (!Arrays.equals(input, copy)) {
+                        errors += String.format(FORMAT_2, "*Input after " + when + ":", "was changed");
+                    }
+                    errors += checkLoaded(bst, sorted, "BinarySearchTree " + when);
+                    errors += checkLoaded(rbt, sorted, "RedBlackTree " + when);
+                    errors += checkLoaded(avl, sorted, "AVLTree " + when);
+                    errors += checkRedBlack(rbt, "after " + when);
+                    errors += checkAVL(avl, "after " + when);
+
+                    for (int i = 0; i < 50; i++) {
+                        int key = random.nextInt(3 * n + 3);
+                        if (!rbt.add(key)) {
+                            rbt.delete(key);
+                        }
+                        if (!avl.add(key)) {
+                            avl.delete(key);
+                        }
+                    }
+                    errors += checkRedBlack(rbt, "after changing the " + when);
+                    errors += checkAVL(avl, "after changing the " + when);
+                }
+            }
+
+            loadTestPassed = errors.isEmpty();
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (loadTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (A loaded tree is malformed. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    /**
+     * Checks that a loaded tree holds exactly the given sorted values, in place of
+     * what it held before, that its parent links and subtree sizes are right, and
+     * that it is as short as a tree of that many values can be.
+     *
+     * @return An error line for every rule broken, or an empty string.
+     */
+    private String checkLoaded(BinarySearchTree<Integer> tree, Integer[] sorted, String when) {
+        String errors = checkLinks(tree.root, null);
+        if (tree.size() != sorted.length || !values(tree.inorder()).equals(Arrays.asList(sorted))) {
+            errors += String.format(FORMAT_2, "*Values after " + when + ":", values(tree.inorder()));
+        }
+        int shortest = 32 - Integer.numberOfLeadingZeros(sorted.length) - 1;
+        if (walkHeight(tree.root) != shortest) {
+            errors += String.format(FORMAT_2, "*Height after " + when + ":", walkHeight(tree.root) + " instead of " + shortest);
+        }
+        return errors;
+    }
+
+    //Compares floor(), ceiling(), lower() and higher() of an empty tree, a single
+    //  node tree, a BinarySearchTree and a RedBlackTree with TreeSet's, for every
+    //  value on, between, below and above their values; then walks each tree from
+    //  min() by successor() and from max() by predecessor(), checking each step
+    //  against TreeSet's order.
+    private void navigationTester() {
+        boolean navigationTestPassed = true;
+        String testOutput = String.format(FORMAT_1, "floor()/successor() Test:");
+        String errors = "";
+        String msg = "";
+
+        try {
+            Random random = new Random(15);
+            TreeSet<Integer> expected = new TreeSet<>();
+            BinarySearchTree<Integer> bst = new BinarySearchTree<>();
+            RedBlackTree<Integer> rbt = new RedBlackTree<>();
+            while (expected.size() < 300) {
+                int key = 2 * random.nextInt(1000);
+                if (expected.add(key)) {
+                    bst.insert(key);
+                    rbt.insert(key);
+                }
+            }
+            for (int i = 0; i < 100; i++) {
+                Integer key = expected.ceiling(2 * random.nextInt(1000));
+                if (key != null) {
+                    expected.remove(key);
+                    bst.delete(key);
+                    rbt.delete(key);
+                }
+            }
+
+            String[] names = {"empty", "single", "BinarySearchTree", "RedBlackTree"};
+            ArrayList<BinarySearchTree<Integer>> trees = new ArrayList<>();
+            trees.add(new BinarySearchTree<Integer>());
+            trees.add(new BinarySearchTree<>(new Integer[] {1000}));
+            trees.add(bst);
+            trees.add(rbt);
+            ArrayList<TreeSet<Integer>> sets = new ArrayList<>();
+            sets.add(new TreeSet<Integer>());
+            sets.add(new TreeSet<>(Arrays.asList(1000)));
+            sets.add(expected);
+            sets.add(expected);
+
+            for (int t = 0; t < trees.size(); t++) {
+                msg += "\n" + INDENT_WIDTH_1 + "Navigating the " + names[t] + " tree...";
+                BinarySearchTree<Integer> tree = trees.get(t);
+                TreeSet<Integer> set = sets.get(t);
+                for (int key = -2; key <= 2001; key++) {
+                    if (!Objects.equals(tree.floor(key), set.floor(key)) || !Objects.equals(tree.ceiling(key), set.ceiling(key))
+                            || !Objects.equals(tree.lower(key), set.lower(key)) || !Objects.equals(tree.higher(key), set.higher(key))) {
+                        errors += String.format(FORMAT_2, "*" + names[t] + " at " + key + ":", tree.floor(key) + ", " + tree.ceiling(key)
+                                + ", " + tree.lower(key) + ", " + tree.higher(key));
+                    }
+                }
+
+                if (!Objects.equals(tree.min(), set.isEmpty() ? null : set.first())
+                        || !Objects.equals(tree.max(), set.isEmpty() ? null : set.last())) {
+                    errors += String.format(FORMAT_2, "*" + names[t] + " min()/max():", tree.min() + ", " + tree.max());
+                }
+                if (set.isEmpty()) {
+                    continue;
+                }
+
+                ArrayList<Integer> forward = new ArrayList<>();
+                for (BSTNode<Integer> node = tree.leftmost(tree.root); node != null; node = tree.successor(node)) {
+                    forward.add(node.getData());
+                }
+                if (!forward.equals(new ArrayList<>(set))) {
+                    errors += String.format(FORMAT_2, "*" + names[t] + " successor() walk:", forward.size() + " values, out of order");
+                }
+                ArrayList<Integer> backward = new ArrayList<>();
+                for (BSTNode<Integer> node = tree.rightmost(tree.root); node != null; node = tree.predecessor(node)) {
+                    backward.add(node.getData());
+                }
+                if (!backward.equals(new ArrayList<>(set.descendingSet()))) {
+                    errors += String.format(FORMAT_2, "*" + names[t] + " predecessor() walk:", backward.size() + " values, out of order");
+                }
+            }
+
+            navigationTestPassed = errors.isEmpty();
+        }
+        catch (Exception ex) {
+            testOutput += "FAIL (" + ex + ")";
+
+            errors += handleException(ex);
+
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+            System.out.println(testOutput);
+            return;
+        }
+
+        if (navigationTestPassed) {
+            testOutput += "PASS";
+            testOutput += (this.verbose) ? msg : "";
+        }
+        else {
+            testOutput += "FAIL (Navigation differs from TreeSet's. See asterisk *)";
+            testOutput += (this.verbose) ? msg : "";
+            testOutput += (this.verbose) ? errors : "";
+        }
+
+        System.out.println(testOutput);
+    }
+
+    /**
+     * Checks that the root is black, that no red node has a red child, that every
+     * path down has the same number of black nodes, and that the tree is no taller
+     * than 2 log2(n + 1).
+     *
+     * @return An error line for every rule broken, or an empty string.
+     */
+    private String checkRedBlack(RedBlackTree<Integer> rbt, String when) {
+        String errors = checkLinks(rbt.root, null);
+
+        if (rbt.isRed(rbt.root)) {
+            errors += String.format(FORMAT_2, "*Red root " + when + ":", rbt.root.getData());
+        }
+        if (blackHeight(rbt, rbt.root) < 0) {
+            errors += String.format(FORMAT_2, "*Red-black " + when + ":", "red node with red child, or unequal black heights");
+        }
+
+        int height = walkHeight(rbt.root);
+        double bound = 2 * Math.log(rbt.size() + 1) / Math.log(2);
+        if (height > bound) {
+            errors += String.format(FORMAT_2, "*Height " + when + ":", height + " > " + bound);
+        }
+
+        return errors;
+    }
+
+    /**
+     * Counts the black nodes on every path down from the given node.
+     *
+     * @return The black height, or -1 if a red node has a red child or two paths differ.
+     */
+    private int blackHeight(RedBlackTree<Integer> rbt, BSTNode<Integer> node) {
+        if (node == null) {
+            return 0;
+        }
+        if (rbt.isRed(node) && (rbt.isRed(node.left) || rbt.isRed(node.right))) {
+            return -1;
+        }
+
+        int left = blackHeight(rbt, node.left);
+        int right = blackHeight(rbt, node.right);
+        if (left < 0 || left != right) {
+            return -1;
+        }
+
+        return left + (rbt.isRed(node) ? 0 : 1);
+    }
+
+    /**
+     * Checks that every node below the given one points back to its parent, is
+     * in order with its parent, and has the right subtree size cached.
+     *
+     * @return An error line for every node which does not, or an empty string.
+     */
+    private String checkLinks(BSTNode<Integer> node, BSTNode<Integer> parent) {
+        if (node == null) {
+            return "";
+        }
+
+        String errors = "";
+        if (node.parent != parent) {
+            errors += String.format(FORMAT_2, "*Parent of " + node.getData() + ":", (node.parent == null) ? null : node.parent.getData());
+        }
+        if (parent != null && (node == parent.left) != (node.getData() < parent.getData())) {
+            errors += String.format(FORMAT_2, "*Out of order:", node.getData() + " under " + parent.getData());
+        }
+
+        int size = 1 + ((node.left == null) ? 0 : node.left.size) + ((node.right == null) ? 0 : node.right.size);
+        if (node.size != size) {
+            errors += String.format(FORMAT_2, "*Size of " + node.getData() + ":", node.size + " instead of " + size);
+        }
+
+        return errors + checkLinks(node.left, node) + checkLinks(node.right, node);
+    }
+
+    /**
+     * Measures the height of the given node's subtree by walking it, rather than
+     * trusting anything the tree caches; an empty subtree has a height of -1.
+     */
+    private int walkHeight(BSTNode<Integer> node) {
+        if (node == null) {
+            return -1;
+        }
+
+        return 1 + Math.max(walkHeight(node.left), walkHeight(node.right));
+    }
 
 
 
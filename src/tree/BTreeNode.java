@@ -0,0 +1,98 @@
+package tree;
+/**
+ * A node of the {@code BPlusTree}; instead of a single value it holds up to a
+ * fixed number of values in a sorted array. An internal node holds one more
+ * child than it holds values, and its i-th value is the smallest value of its
+ * (i + 1)-th child's subtree, or was when it was put there. A leaf holds the
+ * values themselves and points to the next leaf, in ascending order.
+ *
+ * @author Jesus R Mendoza
+ * @param <E> specified object type this node can hold
+ * @see BPlusTree
+ */
+public class BTreeNode<E extends Comparable<E>>
+{
+    /**
+     * The values of this node, in ascending order; only the first
+     * {@code count} entries are in use. There is room for one value more than
+     * a node may keep, so that a node can overflow before it is split.
+     */
+    protected final Object[] keys;
+
+    /**
+     * The number of values in this node.
+     */
+    protected int count = 0;
+
+    /**
+     * The children of an internal node, {@code count + 1} of them; {@code null}
+     * for a leaf.
+     */
+    protected final BTreeNode<E>[] children;
+
+    /**
+     * The leaf which follows this one, or {@code null} for the last leaf or an
+     * internal node.
+     */
+    protected BTreeNode<E> next = null;
+
+    /**
+     * Constructs a new, empty {@code BTreeNode}.
+     *
+     * @param maxKeys the number of values the node may keep
+     * @param leaf    whether the node is a leaf
+     */
+    @SuppressWarnings("unchecked")
+    public BTreeNode(int maxKeys, boolean leaf) {
+        keys = new Object[maxKeys + 1];
+        children = leaf ? null : (BTreeNode<E>[]) new BTreeNode<?>[maxKeys + 2];
+    }
+
+    /**
+     * Checks whether this node is a leaf.
+     *
+     * @return true if this node has no children
+     */
+    public boolean isLeaf() {
+        return children == null;
+    }
+
+    /**
+     * Retrieves the i-th value of this node.
+     *
+     * @param i the index of the value
+     * @return  the value
+     */
+    @SuppressWarnings("unchecked")
+    public E getKey(int i) {
+        return (E) keys[i];
+    }
+
+    /**
+     * Retrieves the i-th child of this node.
+     *
+     * @param i the index of the child, from 0 to {@code getCount()}
+     * @return  the child
+     */
+    public BTreeNode<E> getChild(int i) {
+        return children[i];
+    }
+
+    /**
+     * Retrieves the leaf which follows this one.
+     *
+     * @return the next leaf, or {@code null} if there is none
+     */
+    public BTreeNode<E> getNext() {
+        return next;
+    }
+
+    /**
+     * Retrieves the number of values in this node.
+     *
+     * @return the number of values
+     */
+    public int getCount() {
+        return count;
+    }
+}
\ No newline at end of file
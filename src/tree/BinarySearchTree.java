@@ -1,6 +1,26 @@
 package tree;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import stack.ArrayQueue;
 import stack.Stack;
 
 /**
@@ -9,13 +29,14 @@ import stack.Stack;
  * interface. As each node is inserted, it is placed as a left child of another 
  * node if its value is less than that node's, it is placed as a right child of 
  * that node if its value is greater than that node; that node is then called its
- * parent.
+ * parent. A {@code Comparator} may be supplied to order the values instead of 
+ * their natural ordering.
  * 
  * @author Jesus R Mendoza
  * @param <E> specified object type this tree can hold
  * @see BSTNode
  */
-public class BinarySearchTree<E extends Comparable<E>>
+public class BinarySearchTree<E extends Comparable<E>> implements Iterable<E>
 {
     /**
      * The top most node of this {@code BinarySearchTree}; also, by definition, 
@@ -23,11 +44,65 @@ public class BinarySearchTree<E extends Comparable<E>>
      */
     protected BSTNode<E> root;
     
+    /**
+     * The comparator used to order the values of this tree, or {@code null} if
+     * they are ordered by their natural ordering.
+     */
+    protected final Comparator<? super E> comparator;
+    
+    /**
+     * The fewest nodes each of a node's subtrees must hold for the parallel 
+     * operations to split their work at that node; smaller subtrees are 
+     * handled sequentially.
+     */
+    private int forkThreshold = SubtreeTasks.DEFAULT_FORK_THRESHOLD;
+    
+    /**
+     * Whether duplicate values are counted in their nodes instead of rejected.
+     */
+    private boolean multiset = false;
+    
+    /**
+     * The number of nodes the stacks used by the traversals have room for 
+     * before they grow; a stack only ever holds about one path of the tree.
+     */
+    private static final int STACK_CAPACITY = 64;
+    
+    /**
+     * The first four bytes of every snapshot written by {@code save}.
+     */
+    private static final int SNAPSHOT_MAGIC = 0x42535431;
+    
+    /*
+     * The bits of the header byte which precedes each node of a snapshot; the
+     * upper four bits hold the node's tag.
+     */
+    private static final int HAS_LEFT = 1;
+    private static final int HAS_RIGHT = 2;
+    private static final int COUNTED = 4;
+    
+    /**
+     * The size of the buffers between a snapshot and its stream.
+     */
+    private static final int SNAPSHOT_BUFFER = 1 << 16;
+    
     /**
      * Constructs a new and empty {@code BinarySearchTree}.
      */
     public BinarySearchTree() {
+        this((Comparator<? super E>) null);
+    }
+    
+    /**
+     * Constructs a new and empty {@code BinarySearchTree} whose values are ordered
+     * by the given comparator instead of their natural ordering.
+     * 
+     * @param cmp the comparator used to order the values, or {@code null} to use
+     *            their natural ordering
+     */
+    public BinarySearchTree(Comparator<? super E> cmp) {
         root = null;
+        comparator = cmp;
     }
     
     /**
@@ -37,6 +112,7 @@ public class BinarySearchTree<E extends Comparable<E>>
      * @param elems the provided array to populate the tree with
      */
     public BinarySearchTree(E[] elems) {
+        this();
         for(E elem : elems) 
             insert(elem);
     }
@@ -44,56 +120,357 @@ public class BinarySearchTree<E extends Comparable<E>>
     /**
      * Inserts a given value based on its whether it is greater than or less than
      * an already existing node, if one exists. If the given value already exists
-     * then a {@code DuplicateItemException} will be caught and re-thrown, otherwise
-     * values less than will be added as a left child and greater values will be added
-     * as a right child.
+     * then a {@code DuplicateItemException} is thrown, unless this tree counts
+     * duplicates; otherwise values less than will be added as a left child and 
+     * greater values will be added as a right child.
      * 
      * @param key the value to be inserted
      */
     public void insert(E key) {
-        BSTNode<E> child = new BSTNode<>(key);
-        if(this.isEmpty())
-            root = child;
-        else {
-            try {
-                BSTNode<E> par = insertionPoint(key);
-                if(key.compareTo(par.getData()) < 0 ) {
-                    par.left = child;
-                    child.parent = par;
-                }
-                else if(key.compareTo(par.getData()) > 0) {
-                    par.right = child; 
-                    child.parent = par;
-                }
-            } catch (DuplicateItemExceptionBST ex) {
-                throw ex;
-            } 
-        }
+        if(!add(key))
+            throw new DuplicateItemExceptionBST();
+    }
+    
+    /**
+     * Inserts a given value as {@code insert} does, but reports a duplicate value
+     * by returning false instead of throwing; if this tree counts duplicates, 
+     * the value's count goes up by one instead and true is returned.
+     * 
+     * @param key the value to be inserted
+     * @return    true if this tree changed, false if the value was already in it
+     */
+    public boolean add(E key) {
+        BSTNode<E> existing = addNode(key);
+        if(existing == null)
+            return true;
+        if(!multiset)
+            return false;
+        existing.count++;
+        return true;
+    }
+    
+    /**
+     * Inserts a given value unless an equal value is already in this tree.
+     * 
+     * @param key the value to be inserted
+     * @return    the value already in this tree which is equal to the given
+     *            value, or {@code null} if the given value was inserted
+     */
+    public E putIfAbsent(E key) {
+        BSTNode<E> existing = addNode(key);
+        return (existing == null) ? null : existing.getData();
+    }
+    
+    /**
+     * Inserts a given value, or replaces the equal value already in this tree
+     * with it; useful when values which compare as equal still differ, such as
+     * records ordered by a single field.
+     * 
+     * @param key the value to be inserted
+     * @return    the value which was replaced, or {@code null} if the given 
+     *            value was inserted
+     */
+    public E upsert(E key) {
+        BSTNode<E> existing = addNode(key);
+        if(existing == null)
+            return null;
+        E old = existing.getData();
+        existing.setData(key);
+        return old;
     }
     
     /**
-     * Finds the node for which the given value should be attached to; returns
-     * the node that will become the parent of the node to be inserted.
+     * Inserts a given value in a single descent, unless an equal value is 
+     * already in this tree, in which case the tree is left untouched and no 
+     * node is created.
      * 
-     * @param key the value of the node to be inserted
-     * @return    the node that will become the parent, if one exists
+     * @param key the value to be inserted
+     * @return    the node holding the equal value, or {@code null} if the given
+     *            value was inserted
      */
-    private BSTNode<E> insertionPoint(E key) {
+    protected BSTNode<E> addNode(E key) {
         BSTNode<E> curr = root;
         BSTNode<E> par = null;
+        int cmp = 0;
         while(curr != null) {
-            if(key.compareTo(curr.getData()) == 0)
-                throw new DuplicateItemExceptionBST();
-            else if(key.compareTo(curr.getData()) < 0 ) {
-                par = curr;
-                curr = curr.left;
+            cmp = compare(key, curr.getData());
+            if(cmp == 0)
+                return curr;
+            par = curr;
+            curr = (cmp < 0) ? curr.left : curr.right;
+        }
+        
+        BSTNode<E> child = newNode(key);
+        child.parent = par;
+        if(par == null)
+            root = child;
+        else if(cmp < 0)
+            par.left = child;
+        else
+            par.right = child; 
+        resize(par, 1);
+        inserted(child);
+        return null;
+    }
+    
+    /**
+     * Called after a new node was linked into this tree; subclasses which 
+     * rebalance fix up the tree around the inserted node here.
+     * 
+     * @param node the node which was just inserted
+     */
+    protected void inserted(BSTNode<E> node) {
+    }
+    
+    /**
+     * Sets whether this tree counts duplicate values; when it does, inserting a
+     * value which is already in the tree adds one to the count kept in its node
+     * and deleting it takes one away, so that the node is only removed along 
+     * with the last copy. The number of nodes, and so {@code size}, 
+     * {@code select}, {@code rank} and every traversal, still covers each 
+     * distinct value once.
+     * 
+     * @param countDuplicates true to count duplicate values
+     */
+    public void setMultiset(boolean countDuplicates) {
+        multiset = countDuplicates;
+    }
+    
+    /**
+     * Retrieves the number of copies of the given value in this tree; at most
+     * one unless this tree counts duplicates.
+     * 
+     * @param key the value to be counted
+     * @return    the number of copies of the value
+     */
+    public int count(E key) {
+        BSTNode<E> node = deletionPoint(key);
+        return (node == null) ? 0 : node.count;
+    }
+    
+    /**
+     * Replaces the contents of this tree with the values provided in the array,
+     * building a tree which is as short as possible in a single pass instead of
+     * inserting the values one at a time. The values are sorted first, unless
+     * they already are, and any duplicate values are only kept once. The given
+     * array is left untouched.
+     * 
+     * @param elems the provided array to populate the tree with
+     */
+    public void load(E[] elems) {
+        E[] keys = Arrays.copyOf(elems, elems.length);
+        int n = keys.length;
+        if(!isSorted(keys)) {
+            Arrays.sort(keys, comparator);
+            n = 0;
+            for(E key : keys) {
+                if(n == 0 || compare(key, keys[n - 1]) != 0)
+                    keys[n++] = key;
+            }
+        }
+        root = build(keys, 0, n - 1, null);
+    }
+    
+    /**
+     * Checks whether the given values are in strictly increasing order, which 
+     * also means they hold no duplicates.
+     * 
+     * @param keys the values to be checked
+     * @return     true if each value is greater than the one before it
+     */
+    private boolean isSorted(E[] keys) {
+        for(int i = 1; i < keys.length; i++) {
+            if(compare(keys[i - 1], keys[i]) >= 0)
+                return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Builds a balanced subtree out of a range of sorted, distinct values; the
+     * middle value becomes the root of the subtree and the values on either 
+     * side of it are built into its left and right subtrees.
+     * 
+     * @param keys the sorted values
+     * @param lo   the index of the first value in the range
+     * @param hi   the index of the last value in the range
+     * @param par  the node that will be the parent of the subtree's root
+     * @return     the root of the subtree, or {@code null} if the range is empty
+     */
+    protected BSTNode<E> build(E[] keys, int lo, int hi, BSTNode<E> par) {
+        if(lo > hi)
+            return null;
+        int mid = (lo + hi) >>> 1;
+        BSTNode<E> node = newNode(keys[mid]);
+        node.parent = par;
+        node.left = build(keys, lo, mid - 1, node);
+        node.right = build(keys, mid + 1, hi, node);
+        node.size = hi - lo + 1;
+        return node;
+    }
+    
+    /**
+     * Makes an immutable copy of this tree laid out for fast searching, which
+     * answers {@code find}, {@code floor} and {@code ceiling} without chasing
+     * node references; later changes to this tree do not affect the copy.
+     * 
+     * @return the frozen copy of this tree
+     */
+    public FrozenTree<E> freeze() {
+        Object[] sorted = new Object[size()];
+        int i = 0;
+        for(E value : this)
+            sorted[i++] = value;
+        return new FrozenTree<E>(sorted, comparator);
+    }
+    
+    /**
+     * Writes this tree to the given stream as a compact binary snapshot: the 
+     * nodes in {@code preorder}, each one a header byte saying which children 
+     * it has, followed by its value written by the given codec. The stream is
+     * flushed but not closed.
+     * 
+     * @param out   the stream to write to
+     * @param codec the codec which writes the values
+     * @throws IOException if the snapshot could not be written
+     */
+    public void save(OutputStream out, KeyCodec<E> codec) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, SNAPSHOT_BUFFER));
+        data.writeInt(SNAPSHOT_MAGIC);
+        data.writeInt(size());
+        if(!this.isEmpty()) {
+            Stack<BSTNode<E>> stk = new Stack<>(STACK_CAPACITY);
+            stk.push(root);
+            while(!stk.isEmpty()) {
+                BSTNode<E> node = stk.pop();
+                int header = (tagOf(node) << 4) 
+                           | ((node.count > 1) ? COUNTED : 0)
+                           | ((node.left != null) ? HAS_LEFT : 0)
+                           | ((node.right != null) ? HAS_RIGHT : 0);
+                data.writeByte(header);
+                codec.write(data, node.getData());
+                if(node.count > 1)
+                    data.writeInt(node.count);
+                if(node.right != null)
+                    stk.push(node.right);
+                if(node.left != null)
+                    stk.push(node.left);
+            }
+        }
+        data.flush();
+    }
+    
+    /**
+     * Replaces the contents of this tree with a snapshot written by 
+     * {@code save}, rebuilding exactly the same shape in O(n) time without
+     * comparing any values; the snapshot has to come from a tree of the same 
+     * kind, ordered the same way. The stream may be read past the end of the
+     * snapshot. If the snapshot cannot be read this tree is left as it was.
+     * 
+     * @param in    the stream to read from
+     * @param codec the codec which reads the values
+     * @throws IOException if the snapshot could not be read or is malformed
+     */
+    public void restore(InputStream in, KeyCodec<E> codec) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in, SNAPSHOT_BUFFER));
+        if(data.readInt() != SNAPSHOT_MAGIC)
+            throw new IOException("Not a tree snapshot");
+        int n = data.readInt();
+        if(n < 0)
+            throw new IOException("Malformed tree snapshot");
+        
+        // Each node is the left child of the node before it if that node has
+        // one, and otherwise the right child of the latest node still waiting
+        // for its right child.
+        Stack<BSTNode<E>> waiting = new Stack<>(STACK_CAPACITY);
+        BSTNode<E> top = null;
+        BSTNode<E> prev = null;
+        int prevHeader = 0;
+        for(int i = 0; i < n; i++) {
+            int header = data.readUnsignedByte();
+            BSTNode<E> node = newNode(codec.read(data));
+            if((header & COUNTED) != 0)
+                node.count = data.readInt();
+            restoreTag(node, header >>> 4);
+            if(prev == null)
+                top = node;
+            else if((prevHeader & HAS_LEFT) != 0) {
+                prev.left = node;
+                node.parent = prev;
             }
-            else if(key.compareTo(curr.getData()) > 0) {
-                par = curr;
-                curr = curr.right;            
+            else if(!waiting.isEmpty()) {
+                BSTNode<E> par = waiting.pop();
+                par.right = node;
+                node.parent = par;
             }
-        }        
-        return par;        
+            else
+                throw new IOException("Malformed tree snapshot");
+            if((header & HAS_RIGHT) != 0)
+                waiting.push(node);
+            prev = node;
+            prevHeader = header;
+        }
+        if((prevHeader & (HAS_LEFT | HAS_RIGHT)) != 0 || !waiting.isEmpty())
+            throw new IOException("Truncated tree snapshot");
+        
+        root = top;
+        for(Iterator<BSTNode<E>> it = postorderIterator(); it.hasNext(); )
+            restored(it.next());
+    }
+    
+    /**
+     * Returns up to four bits of extra information about the given node which
+     * a snapshot keeps alongside it, such as its color; none by default.
+     * 
+     * @param node the node being saved
+     * @return     the node's tag, from 0 to 15
+     */
+    protected int tagOf(BSTNode<E> node) {
+        return 0;
+    }
+    
+    /**
+     * Gives a node read back from a snapshot the tag it was saved with.
+     * 
+     * @param node the node being restored
+     * @param tag  the tag returned by {@code tagOf} when it was saved
+     */
+    protected void restoreTag(BSTNode<E> node, int tag) {
+    }
+    
+    /**
+     * Recomputes what a node caches about its subtree once the subtree has 
+     * been restored from a snapshot; nodes are visited in {@code postorder}.
+     * 
+     * @param node the node whose subtree was restored
+     */
+    protected void restored(BSTNode<E> node) {
+        node.size = 1 + sizeOf(node.left) + sizeOf(node.right);
+    }
+    
+    /**
+     * Creates a new, detached node holding the given value; subclasses whose 
+     * nodes carry extra information create their own kind of node.
+     * 
+     * @param key the value the node will hold
+     * @return    the new node
+     */
+    protected BSTNode<E> newNode(E key) {
+        return new BSTNode<>(key);
+    }
+    
+    /**
+     * Compares two values by this tree's comparator, or by their natural 
+     * ordering if it has none. Every search through this tree compares a value 
+     * against each node on its path exactly once through this method.
+     * 
+     * @param a the first value to be compared
+     * @param b the second value to be compared
+     * @return  a negative number, zero, or a positive number as the first value
+     *          is less than, equal to, or greater than the second
+     */
+    protected int compare(E a, E b) {
+        return (comparator == null) ? a.compareTo(b) : comparator.compare(a, b);
     }
     
     /**
@@ -102,7 +479,23 @@ public class BinarySearchTree<E extends Comparable<E>>
      * @param key the value to be deleted
      */
     public void delete(E key) {
-        deleteNode(deletionPoint(key));
+        BSTNode<E> node = deletionPoint(key);
+        if(!dropCopy(node))
+            deleteNode(node);
+    }
+    
+    /**
+     * Takes one copy away from a node which holds more than one, as happens 
+     * when this tree counts duplicates; such a node stays in the tree.
+     * 
+     * @param node the node holding the value to be deleted, if there is one
+     * @return     true if a copy was taken away and the node has to stay
+     */
+    protected boolean dropCopy(BSTNode<E> node) {
+        if(node == null || node.count == 1)
+            return false;
+        node.count--;
+        return true;
     }
     
     /**
@@ -127,15 +520,13 @@ public class BinarySearchTree<E extends Comparable<E>>
      * @param key the value to delete from this tree
      * @return    the node that will be deleted
      */
-    private BSTNode<E> deletionPoint(E key){
+    protected BSTNode<E> deletionPoint(E key){
         BSTNode<E> curr = root;
         while(curr != null) {
-            if(key.compareTo(curr.getData()) == 0)
+            int cmp = compare(key, curr.getData());
+            if(cmp == 0)
                 return curr;
-            else if(key.compareTo(curr.getData()) < 0) 
-                curr = curr.left;
-            else if(key.compareTo(curr.getData()) > 0)
-                curr = curr.right;
+            curr = (cmp < 0) ? curr.left : curr.right;
         }
         return null;
     }
@@ -146,13 +537,14 @@ public class BinarySearchTree<E extends Comparable<E>>
      * 
      * @param node the node, with no children, that will be deleted
      */
-    private void deleteLeafNode(BSTNode<E> node) {        
-        if(node.equals(root))
+    protected void deleteLeafNode(BSTNode<E> node) {        
+        if(node == root)
             root = null;
         else if(isLeftChild(node))
             node.parent.left = null;
         else if(isRightChild(node))
             node.parent.right = null;        
+        resize(node.parent, -1);
         node = null;
     }
     
@@ -162,11 +554,11 @@ public class BinarySearchTree<E extends Comparable<E>>
      * 
      * @param node the node, with only one child, that will be deleted
      */
-    private void deleteNodeWith1Child(BSTNode<E> node) {
+    protected void deleteNodeWith1Child(BSTNode<E> node) {
         BSTNode<E> child = node.left;
         if(child == null) 
             child = node.right;
-        if(node.equals(root)) {
+        if(node == root) {
             root = child;
             child.parent = null;
         }
@@ -178,6 +570,7 @@ public class BinarySearchTree<E extends Comparable<E>>
             node.parent.right = child;
             child.parent = node.parent;
         }
+        resize(node.parent, -1);
         node = null;
     }
     
@@ -191,30 +584,98 @@ public class BinarySearchTree<E extends Comparable<E>>
      */
     private void deleteNodeWith2Child(BSTNode<E> node) {
         BSTNode<E> max = maxLeftSubTree(node);
-        node.setData(max.getData());
+        replaceData(node, max);
         deleteNode(max);
     }
     
+    /**
+     * Gives the given node the data of the source node, which is about to be 
+     * removed from the tree in its place, along with its count of copies; 
+     * subclasses whose nodes carry more than the data copy that over as well.
+     * 
+     * @param node   the node which will keep its place in the tree
+     * @param source the node whose data is moved into the given node
+     */
+    protected void replaceData(BSTNode<E> node, BSTNode<E> source) {
+        node.setData(source.getData());
+        node.count = source.count;
+    }
+    
     /**
      * Finds the maximum value of a node's left subtree.
      * 
      * @param node the node which serves as the root of the entire subtree
      * @return 
      */
-    private BSTNode<E> maxLeftSubTree(BSTNode<E> node) {
+    protected BSTNode<E> maxLeftSubTree(BSTNode<E> node) {
         BSTNode<E> max = node.left;
         while(max.right != null) 
             max = max.right;        
         return max;
     }
     
+    /**
+     * Rotates the subtree rooted at the given node to the left; its right child
+     * takes its place and the given node becomes that child's left child. The 
+     * parent references and the root of this tree are kept up to date.
+     * 
+     * @param node the node to rotate down to the left, must have a right child
+     */
+    protected void rotateLeft(BSTNode<E> node) {
+        BSTNode<E> pivot = node.right;
+        node.right = pivot.left;
+        if(pivot.left != null)
+            pivot.left.parent = node;
+        replaceChild(node, pivot);
+        pivot.left = node;
+        node.parent = pivot;
+        pivot.size = node.size;
+        node.size = 1 + sizeOf(node.left) + sizeOf(node.right);
+    }
+    
+    /**
+     * Rotates the subtree rooted at the given node to the right; its left child
+     * takes its place and the given node becomes that child's right child. The 
+     * parent references and the root of this tree are kept up to date.
+     * 
+     * @param node the node to rotate down to the right, must have a left child
+     */
+    protected void rotateRight(BSTNode<E> node) {
+        BSTNode<E> pivot = node.left;
+        node.left = pivot.right;
+        if(pivot.right != null)
+            pivot.right.parent = node;
+        replaceChild(node, pivot);
+        pivot.right = node;
+        node.parent = pivot;
+        pivot.size = node.size;
+        node.size = 1 + sizeOf(node.left) + sizeOf(node.right);
+    }
+    
+    /**
+     * Puts the given replacement where the given node hangs off of its parent
+     * (or at the root), taking over the node's parent reference.
+     * 
+     * @param node        the node whose place will be taken
+     * @param replacement the node that will take its place
+     */
+    private void replaceChild(BSTNode<E> node, BSTNode<E> replacement) {
+        replacement.parent = node.parent;
+        if(node.parent == null)
+            root = replacement;
+        else if(isLeftChild(node))
+            node.parent.left = replacement;
+        else
+            node.parent.right = replacement;
+    }
+    
     /**
      * Counts the number of children a given node has.
      * 
      * @param node the node whose children will be counted
      * @return 
      */
-    private int numChildren(BSTNode<E> node) {
+    protected int numChildren(BSTNode<E> node) {
         int num = 0;
         if(node.left != null)
             num++;
@@ -233,12 +694,10 @@ public class BinarySearchTree<E extends Comparable<E>>
     public boolean find(E key) {
         BSTNode<E> curr = root;
         while(curr != null) {
-            if(key.compareTo(curr.getData()) == 0)
+            int cmp = compare(key, curr.getData());
+            if(cmp == 0)
                 return true;
-            else if(key.compareTo(curr.getData()) < 0 )
-                curr = curr.left;
-            else if(key.compareTo(curr.getData()) > 0)
-                curr = curr.right;            
+            curr = (cmp < 0) ? curr.left : curr.right;
         }
         return false;
     }
@@ -251,7 +710,7 @@ public class BinarySearchTree<E extends Comparable<E>>
      * @return     the depth of the given node
      */
     public int depth(BSTNode<E> node) {
-        if(node.equals(root))
+        if(node == root)
             return 0; 
         else 
             return 1 + depth(node.parent);
@@ -284,6 +743,91 @@ public class BinarySearchTree<E extends Comparable<E>>
         return h;
     }
     
+    /**
+     * Returns the number of nodes in this tree.
+     * 
+     * @return the number of nodes in this tree
+     */
+    public int size() {
+        return sizeOf(root);
+    }
+    
+    /**
+     * Returns the k-th smallest value of this tree, counting from 0; descends
+     * from the root using the subtree sizes, so it takes O(height) time.
+     * 
+     * @param k the number of values smaller than the one to be returned
+     * @return  the k-th smallest value
+     * @throws  IndexOutOfBoundsException if k is negative or not less than the
+     *          size of this tree
+     */
+    public E select(int k) {
+        if(k < 0 || k >= size())
+            throw new IndexOutOfBoundsException("k: " + k + ", size: " + size());
+        BSTNode<E> curr = root;
+        while(true) {
+            int smaller = sizeOf(curr.left);
+            if(k == smaller)
+                return curr.getData();
+            else if(k < smaller)
+                curr = curr.left;
+            else {
+                k -= smaller + 1;
+                curr = curr.right;
+            }
+        }
+    }
+    
+    /**
+     * Counts how many values in this tree are smaller than the given value, 
+     * whether or not the value itself is in the tree; takes O(height) time.
+     * 
+     * @param key the value to be ranked
+     * @return    the number of values smaller than the given value
+     */
+    public int rank(E key) {
+        int r = 0;
+        BSTNode<E> curr = root;
+        while(curr != null) {
+            int cmp = compare(key, curr.getData());
+            if(cmp <= 0) {
+                if(cmp == 0)
+                    return r + sizeOf(curr.left);
+                curr = curr.left;
+            }
+            else {
+                r += sizeOf(curr.left) + 1;
+                curr = curr.right;
+            }
+        }
+        return r;
+    }
+    
+    /**
+     * Returns the size of the given node's subtree, where a missing node has a
+     * size of 0.
+     * 
+     * @param node the node whose size will be retrieved, may be {@code null}
+     * @return     the size of the subtree
+     */
+    protected int sizeOf(BSTNode<E> node) {
+        return (node == null) ? 0 : node.size;
+    }
+    
+    /**
+     * Adds the given amount to the size of the given node and of every one of
+     * its ancestors, after a node was linked into or unlinked from beneath them.
+     * 
+     * @param node  the lowest node whose subtree changed, may be {@code null}
+     * @param delta the number of nodes added, or removed if negative
+     */
+    private void resize(BSTNode<E> node, int delta) {
+        while(node != null) {
+            node.size += delta;
+            node = node.parent;
+        }
+    }
+    
     /**
      * Checks whether this tree is empty (has no existing nodes).
      * 
@@ -310,9 +854,7 @@ public class BinarySearchTree<E extends Comparable<E>>
      * @return     true if the given node is a left child of its parent, false otherwise
      */
     public boolean isLeftChild(BSTNode<E> node) {
-        if(node.parent != null && node.parent.left != null)
-            return node.getData().equals(node.parent.left.getData());
-        return false;
+        return node.parent != null && node.parent.left == node;
     }
     
     /**
@@ -322,9 +864,7 @@ public class BinarySearchTree<E extends Comparable<E>>
      * @return     true if the given node is a right child of its parent, false otherwise
      */
     public boolean isRightChild(BSTNode<E> node) {
-        if(node.parent != null && node.parent.right != null)
-            return node.getData().equals(node.parent.right.getData());
-        return false;
+        return node.parent != null && node.parent.right == node;
     }
     
     /**
@@ -381,7 +921,7 @@ public class BinarySearchTree<E extends Comparable<E>>
     public ArrayList<BSTNode<E>> preorder() { 
         ArrayList<BSTNode<E>> arr = new ArrayList<>();
         if(!this.isEmpty()) {            
-            Stack<BSTNode<E>> stk = new Stack<>();
+            Stack<BSTNode<E>> stk = new Stack<>(STACK_CAPACITY);
             BSTNode<E> curr = root;
             stk.push(curr);
             
@@ -407,7 +947,7 @@ public class BinarySearchTree<E extends Comparable<E>>
     public ArrayList<BSTNode<E>> inorder() { 
         ArrayList<BSTNode<E>> arr = new ArrayList<>();
         if(!this.isEmpty()) { 
-            Stack<BSTNode<E>> stk = new Stack<>();
+            Stack<BSTNode<E>> stk = new Stack<>(STACK_CAPACITY);
             BSTNode<E> curr = root;
             
             while(!stk.isEmpty() || curr != null) {
@@ -435,23 +975,24 @@ public class BinarySearchTree<E extends Comparable<E>>
     public ArrayList<BSTNode<E>> postorder() { 
         ArrayList<BSTNode<E>> arr = new ArrayList<>();
         if(!this.isEmpty()) { 
-            Stack<BSTNode<E>> st1 = new Stack<>();
-            Stack<BSTNode<E>> st2 = new Stack<>();
+            Stack<BSTNode<E>> stk = new Stack<>(STACK_CAPACITY);
             BSTNode<E> curr = root;
-            st1.push(curr);
+            BSTNode<E> last = null;
             
-            while(!st1.isEmpty()) {
-                curr = st1.pop();
-                st2.push(curr);                
-                if(curr.left != null)
-                    st1.push(curr.left);
-                if(curr.right != null)
-                    st1.push(curr.right);
-            }
-            
-            while(!st2.isEmpty()) {
-                curr = st2.pop();
-                arr.add(curr);
+            while(!stk.isEmpty() || curr != null) {
+                if(curr != null) {
+                    stk.push(curr);
+                    curr = curr.left;
+                }
+                else {
+                    BSTNode<E> top = stk.top();
+                    if(top.right != null && top.right != last)
+                        curr = top.right;
+                    else {
+                        arr.add(top);
+                        last = stk.pop();
+                    }
+                }
             }
         }
         return arr;
@@ -467,22 +1008,706 @@ public class BinarySearchTree<E extends Comparable<E>>
     public ArrayList<BSTNode<E>> breadthfirst() { 
         ArrayList<BSTNode<E>> arr = new ArrayList<>();
         if(!this.isEmpty()) {
-            ArrayList<BSTNode<E>> q = new ArrayList<>();
+            ArrayQueue<BSTNode<E>> q = new ArrayQueue<>();
             BSTNode<E> curr = root;
-            q.add(curr);
+            q.enqueue(curr);
             
             while(!q.isEmpty()) {
-                curr = q.remove(0);
+                curr = q.dequeue();
                 arr.add(curr);
                 if(curr.left != null)
-                    q.add(curr.left);
+                    q.enqueue(curr.left);
                 if(curr.right != null)
-                    q.add(curr.right);
+                    q.enqueue(curr.right);
             }
         }
         return arr;
     }
     
+    /**
+     * Visits the nodes of this tree in the same order as the {@code breadthfirst}
+     * traversal, and reports the end of each level as it is reached. The end of
+     * each level is found from the number of nodes waiting in the queue when 
+     * that level starts, so no depth has to be stored for any node, and nothing
+     * is allocated besides the queue.
+     * 
+     * @param visit      called with each node, level by level from left to right
+     * @param onLevelEnd called with the depth of each level after its last node
+     *                   was visited
+     */
+    public void breadthfirst(Consumer<? super BSTNode<E>> visit, IntConsumer onLevelEnd) {
+        if(this.isEmpty())
+            return;
+        ArrayQueue<BSTNode<E>> q = new ArrayQueue<>();
+        q.enqueue(root);
+        
+        for(int depth = 0; !q.isEmpty(); depth++) {
+            int width = q.size();
+            for(int i = 0; i < width; i++) {
+                BSTNode<E> curr = q.dequeue();
+                visit.accept(curr);
+                if(curr.left != null)
+                    q.enqueue(curr.left);
+                if(curr.right != null)
+                    q.enqueue(curr.right);
+            }
+            onLevelEnd.accept(depth);
+        }
+    }
+    
+    /**
+     * Returns an iterator over the values of this tree in increasing order. The
+     * tree is walked lazily, one node per call to {@code next}, so stopping 
+     * early costs nothing more. The tree must not be modified while iterating.
+     * 
+     * @return an iterator over the values of this tree, in order
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return values(inorderIterator());
+    }
+    
+    /**
+     * Wraps an iterator over nodes into an iterator over the data they hold.
+     * 
+     * @param nodes the iterator over nodes
+     * @return      an iterator over the data of those nodes
+     */
+    private Iterator<E> values(Iterator<BSTNode<E>> nodes) {
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext() {
+                return nodes.hasNext();
+            }
+            
+            @Override
+            public E next() {
+                return nodes.next().getData();
+            }
+        };
+    }
+    
+    /**
+     * Returns an iterator over the nodes of this tree in the same order as 
+     * {@code preorder}, without building a list first. Each step follows the 
+     * parent references, so the iterator holds nothing but its current node.
+     * 
+     * @return a lazy preorder iterator
+     */
+    public Iterator<BSTNode<E>> preorderIterator() {
+        return new NodeIterator(root) {
+            @Override
+            BSTNode<E> step(BSTNode<E> node) {
+                if(node.left != null)
+                    return node.left;
+                if(node.right != null)
+                    return node.right;
+                while(node.parent != null) {
+                    if(isLeftChild(node) && node.parent.right != null)
+                        return node.parent.right;
+                    node = node.parent;
+                }
+                return null;
+            }
+        };
+    }
+    
+    /**
+     * Returns an iterator over the nodes of this tree in the same order as 
+     * {@code inorder}, without building a list first. Each step moves to the 
+     * next greater node through the parent references, so no stack is needed.
+     * 
+     * @return a lazy inorder iterator
+     */
+    public Iterator<BSTNode<E>> inorderIterator() {
+        return new NodeIterator(leftmost(root)) {
+            @Override
+            BSTNode<E> step(BSTNode<E> node) {
+                return successor(node);
+            }
+        };
+    }
+    
+    /**
+     * Returns an iterator over the nodes of this tree in the same order as 
+     * {@code postorder}, without building a list first. Each step follows the 
+     * parent references, so the iterator holds nothing but its current node.
+     * 
+     * @return a lazy postorder iterator
+     */
+    public Iterator<BSTNode<E>> postorderIterator() {
+        return new NodeIterator(firstPostorder(root)) {
+            @Override
+            BSTNode<E> step(BSTNode<E> node) {
+                if(isLeftChild(node) && node.parent.right != null)
+                    return firstPostorder(node.parent.right);
+                return node.parent;
+            }
+        };
+    }
+    
+    /**
+     * Returns an iterator over the nodes of this tree in the same order as 
+     * {@code breadthfirst}, without building a list first. Only the nodes of
+     * the next level or two are held in the iterator's queue at any time.
+     * 
+     * @return a lazy breadth first iterator
+     */
+    public Iterator<BSTNode<E>> breadthfirstIterator() {
+        ArrayQueue<BSTNode<E>> q = new ArrayQueue<>();
+        if(!this.isEmpty())
+            q.enqueue(root);
+        return new Iterator<BSTNode<E>>() {
+            @Override
+            public boolean hasNext() {
+                return !q.isEmpty();
+            }
+            
+            @Override
+            public BSTNode<E> next() {
+                if(q.isEmpty())
+                    throw new NoSuchElementException();
+                BSTNode<E> curr = q.dequeue();
+                if(curr.left != null)
+                    q.enqueue(curr.left);
+                if(curr.right != null)
+                    q.enqueue(curr.right);
+                return curr;
+            }
+        };
+    }
+    
+    /**
+     * Counts the nodes of this tree using the common {@code ForkJoinPool}, 
+     * splitting the work between subtrees.
+     * 
+     * @return the number of nodes in this tree
+     */
+    public int parallelSize() {
+        return ForkJoinPool.commonPool().invoke(new SubtreeTasks.Size<>(root, forkThreshold));
+    }
+    
+    /**
+     * Calculates the height of this tree using the common {@code ForkJoinPool},
+     * splitting the work between subtrees.
+     * 
+     * @return the height of the root, or -1 if this tree is empty
+     */
+    public int parallelHeight() {
+        return ForkJoinPool.commonPool().invoke(new SubtreeTasks.Height<>(root, forkThreshold));
+    }
+    
+    /**
+     * Folds every value of this tree into a single result using the common 
+     * {@code ForkJoinPool}, the same way {@code Stream.reduce} does; for 
+     * example {@code parallelReduce(0L, (sum, x) -> sum + x, Long::sum)} sums
+     * the values. Each subtree is folded separately starting from the identity,
+     * and the results are combined in order, so the accumulator and combiner 
+     * must agree with each other and be associative.
+     * 
+     * @param <R>         the type of the result
+     * @param identity    the result for an empty tree, which must not change
+     *                    any result it is combined with
+     * @param accumulator folds a single value into a result
+     * @param combiner    combines the results of two neighboring subtrees
+     * @return            the folded result
+     */
+    public <R> R parallelReduce(R identity, BiFunction<R, ? super E, R> accumulator, 
+                                BinaryOperator<R> combiner) {
+        return ForkJoinPool.commonPool().invoke(
+                new SubtreeTasks.Reduce<>(root, forkThreshold, identity, accumulator, combiner));
+    }
+    
+    /**
+     * Performs the given action on every value of this tree using the common
+     * {@code ForkJoinPool}. The action is run from several threads at once and
+     * in no particular order, and must be safe to run that way.
+     * 
+     * @param action the action to be performed on each value
+     */
+    public void parallelForEach(Consumer<? super E> action) {
+        ForkJoinPool.commonPool().invoke(new SubtreeTasks.ForEach<>(root, forkThreshold, action));
+    }
+    
+    /**
+     * Sets how many nodes each of a node's subtrees must hold for the parallel
+     * operations to split their work into separate tasks at that node; the 
+     * size kept in every node makes this check free. Smaller subtrees are each
+     * handled sequentially by a single task, and a threshold larger than the 
+     * tree runs everything sequentially.
+     * 
+     * @param nodes the fewest nodes a subtree split over may have
+     * @throws IllegalArgumentException if {@code nodes} is less than 1
+     */
+    public void setForkThreshold(int nodes) {
+        if(nodes < 1)
+            throw new IllegalArgumentException("Fork threshold: " + nodes);
+        forkThreshold = nodes;
+    }
+    
+    /**
+     * Returns a view of the values of this tree which are at least {@code lo} 
+     * and less than {@code hi}, in increasing order. Iterating the view 
+     * descends straight to the first value in the range and then steps from 
+     * one value to the next, so it only ever touches O(height + k) nodes for k
+     * values in the range. The view reflects the tree at the time it is 
+     * iterated; the tree must not be modified while iterating.
+     * 
+     * @param lo the smallest value of the range, inclusive
+     * @param hi the end of the range, exclusive
+     * @return   a lazy view of the values in the range
+     * @throws   IllegalArgumentException if {@code lo} is greater than {@code hi}
+     */
+    public Iterable<E> range(E lo, E hi) {
+        if(compare(lo, hi) > 0)
+            throw new IllegalArgumentException("lo > hi");
+        return () -> rangeIterator(lo, hi);
+    }
+    
+    /**
+     * Returns a view of the values of this tree which are less than {@code hi},
+     * in increasing order; see {@code range}.
+     * 
+     * @param hi the end of the range, exclusive
+     * @return   a lazy view of the values in the range
+     */
+    public Iterable<E> headSet(E hi) {
+        return () -> rangeIterator(null, hi);
+    }
+    
+    /**
+     * Returns a view of the values of this tree which are at least {@code lo},
+     * in increasing order; see {@code range}.
+     * 
+     * @param lo the smallest value of the range, inclusive
+     * @return   a lazy view of the values in the range
+     */
+    public Iterable<E> tailSet(E lo) {
+        return () -> rangeIterator(lo, null);
+    }
+    
+    /**
+     * Counts the values of this tree which are at least {@code lo} and less 
+     * than {@code hi}, from the ranks of the two bounds; takes O(height) time
+     * no matter how many values are in the range.
+     * 
+     * @param lo the smallest value of the range, inclusive
+     * @param hi the end of the range, exclusive
+     * @return   the number of values in the range
+     * @throws   IllegalArgumentException if {@code lo} is greater than {@code hi}
+     */
+    public int countRange(E lo, E hi) {
+        if(compare(lo, hi) > 0)
+            throw new IllegalArgumentException("lo > hi");
+        return rank(hi) - rank(lo);
+    }
+    
+    /**
+     * Returns an iterator over the values between the given bounds, in order.
+     * 
+     * @param lo the smallest value, inclusive, or {@code null} for no lower bound
+     * @param hi the end of the range, exclusive, or {@code null} for no upper bound
+     * @return   an iterator over the values in the range
+     */
+    private Iterator<E> rangeIterator(E lo, E hi) {
+        BSTNode<E> first = (lo == null) ? leftmost(root) : ceilingNode(lo, true);
+        if(first != null && hi != null && compare(first.getData(), hi) >= 0)
+            first = null;
+        return values(new NodeIterator(first) {
+            @Override
+            BSTNode<E> step(BSTNode<E> node) {
+                BSTNode<E> next = successor(node);
+                if(next != null && hi != null && compare(next.getData(), hi) >= 0)
+                    return null;
+                return next;
+            }
+        });
+    }
+    
+    /**
+     * Returns the greatest value of this tree which is less than or equal to 
+     * the given value.
+     * 
+     * @param key the value to be looked for
+     * @return    the greatest value at most the given one, or {@code null} if 
+     *            there is none
+     */
+    public E floor(E key) {
+        return dataOf(floorNode(key, true));
+    }
+    
+    /**
+     * Returns the smallest value of this tree which is greater than or equal to
+     * the given value.
+     * 
+     * @param key the value to be looked for
+     * @return    the smallest value at least the given one, or {@code null} if 
+     *            there is none
+     */
+    public E ceiling(E key) {
+        return dataOf(ceilingNode(key, true));
+    }
+    
+    /**
+     * Returns the greatest value of this tree which is strictly less than the
+     * given value.
+     * 
+     * @param key the value to be looked for
+     * @return    the greatest value below the given one, or {@code null} if 
+     *            there is none
+     */
+    public E lower(E key) {
+        return dataOf(floorNode(key, false));
+    }
+    
+    /**
+     * Returns the smallest value of this tree which is strictly greater than 
+     * the given value.
+     * 
+     * @param key the value to be looked for
+     * @return    the smallest value above the given one, or {@code null} if 
+     *            there is none
+     */
+    public E higher(E key) {
+        return dataOf(ceilingNode(key, false));
+    }
+    
+    /**
+     * Returns the smallest value of this tree.
+     * 
+     * @return the smallest value, or {@code null} if this tree is empty
+     */
+    public E min() {
+        return dataOf(leftmost(root));
+    }
+    
+    /**
+     * Returns the greatest value of this tree.
+     * 
+     * @return the greatest value, or {@code null} if this tree is empty
+     */
+    public E max() {
+        return dataOf(rightmost(root));
+    }
+    
+    /**
+     * Finds the node holding the greatest value which is less than the given
+     * value, or equal to it if inclusive; a single descent from the root.
+     * 
+     * @param key       the value to be looked for
+     * @param inclusive whether a node holding the value itself may be returned
+     * @return          the node found, or {@code null} if there is none
+     */
+    protected BSTNode<E> floorNode(E key, boolean inclusive) {
+        BSTNode<E> curr = root;
+        BSTNode<E> best = null;
+        while(curr != null) {
+            int cmp = compare(key, curr.getData());
+            if(cmp == 0 && inclusive)
+                return curr;
+            else if(cmp > 0) {
+                best = curr;
+                curr = curr.right;
+            }
+            else
+                curr = curr.left;
+        }
+        return best;
+    }
+    
+    /**
+     * Finds the node holding the smallest value which is greater than the given
+     * value, or equal to it if inclusive; a single descent from the root.
+     * 
+     * @param key       the value to be looked for
+     * @param inclusive whether a node holding the value itself may be returned
+     * @return          the node found, or {@code null} if there is none
+     */
+    protected BSTNode<E> ceilingNode(E key, boolean inclusive) {
+        BSTNode<E> curr = root;
+        BSTNode<E> best = null;
+        while(curr != null) {
+            int cmp = compare(key, curr.getData());
+            if(cmp == 0 && inclusive)
+                return curr;
+            else if(cmp < 0) {
+                best = curr;
+                curr = curr.left;
+            }
+            else
+                curr = curr.right;
+        }
+        return best;
+    }
+    
+    /**
+     * Returns the data held by the given node, if there is one.
+     * 
+     * @param node the node, may be {@code null}
+     * @return     the data of the node, or {@code null} if there is no node
+     */
+    private E dataOf(BSTNode<E> node) {
+        return (node == null) ? null : node.getData();
+    }
+    
+    /**
+     * Returns a sequential {@code Stream} over the values of this tree, in 
+     * increasing order.
+     * 
+     * @return a sequential stream over the values of this tree
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+    
+    /**
+     * Returns a parallel {@code Stream} over the values of this tree. The tree
+     * is split between threads at subtree boundaries, so the values still 
+     * come out in increasing order wherever the stream keeps its encounter 
+     * order.
+     * 
+     * @return a parallel stream over the values of this tree
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+    
+    /**
+     * Returns a {@code Spliterator} over the values of this tree, in increasing
+     * order. Splitting hands the left subtree of the highest node still 
+     * unsplit to the new spliterator, and keeps that node along with its right
+     * subtree. The size kept in every node gives each part its exact number of
+     * values, so every part stays {@code SIZED}. The tree must not be modified
+     * while it is being split or walked.
+     * 
+     * @return a spliterator over the values of this tree
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new TreeSpliterator(null, root, null);
+    }
+    
+    /**
+     * Returns the node that comes after the given one in an inorder traversal;
+     * the left most node of its right subtree if it has one, otherwise the 
+     * first ancestor it is in the left subtree of. Stepping through the whole
+     * tree this way follows each parent reference at most twice, so it costs 
+     * O(1) per node on average.
+     * 
+     * @param node the node whose successor will be found
+     * @return     the next greater node, or {@code null} if there is none
+     */
+    public BSTNode<E> successor(BSTNode<E> node) {
+        if(node.right != null)
+            return leftmost(node.right);
+        while(isRightChild(node))
+            node = node.parent;
+        return node.parent;
+    }
+    
+    /**
+     * Returns the node that comes before the given one in an inorder traversal;
+     * the right most node of its left subtree if it has one, otherwise the 
+     * first ancestor it is in the right subtree of.
+     * 
+     * @param node the node whose predecessor will be found
+     * @return     the next smaller node, or {@code null} if there is none
+     */
+    public BSTNode<E> predecessor(BSTNode<E> node) {
+        if(node.left != null)
+            return rightmost(node.left);
+        while(isLeftChild(node))
+            node = node.parent;
+        return node.parent;
+    }
+    
+    /**
+     * Finds the left most node of the given subtree, which holds its minimum.
+     * 
+     * @param node the root of the subtree, may be {@code null}
+     * @return     the left most node, or {@code null} if the subtree is empty
+     */
+    protected BSTNode<E> leftmost(BSTNode<E> node) {
+        if(node != null) {
+            while(node.left != null)
+                node = node.left;
+        }
+        return node;
+    }
+    
+    /**
+     * Finds the right most node of the given subtree, which holds its maximum.
+     * 
+     * @param node the root of the subtree, may be {@code null}
+     * @return     the right most node, or {@code null} if the subtree is empty
+     */
+    protected BSTNode<E> rightmost(BSTNode<E> node) {
+        if(node != null) {
+            while(node.right != null)
+                node = node.right;
+        }
+        return node;
+    }
+    
+    /**
+     * Finds the first node visited by a postorder traversal of the given 
+     * subtree; the leaf reached by going left whenever possible, and right 
+     * otherwise.
+     * 
+     * @param node the root of the subtree, may be {@code null}
+     * @return     the first node in postorder, or {@code null} if the subtree is empty
+     */
+    private BSTNode<E> firstPostorder(BSTNode<E> node) {
+        if(node != null) {
+            while(!isLeaf(node))
+                node = (node.left != null) ? node.left : node.right;
+        }
+        return node;
+    }
+    
+    /**
+     * An iterator which walks the tree one node at a time, finding each next
+     * node from the one before it.
+     */
+    private abstract class NodeIterator implements Iterator<BSTNode<E>> {
+        
+        /**
+         * The node that will be returned by the next call to {@code next}.
+         */
+        private BSTNode<E> nextNode;
+        
+        /**
+         * Constructs an iterator starting at the given node.
+         * 
+         * @param first the first node to visit, or {@code null} if there is none
+         */
+        NodeIterator(BSTNode<E> first) {
+            nextNode = first;
+        }
+        
+        /**
+         * Finds the node visited after the given one.
+         * 
+         * @param node the node just visited
+         * @return     the node to visit next, or {@code null} if there is none
+         */
+        abstract BSTNode<E> step(BSTNode<E> node);
+        
+        @Override
+        public boolean hasNext() {
+            return nextNode != null;
+        }
+        
+        @Override
+        public BSTNode<E> next() {
+            if(nextNode == null)
+                throw new NoSuchElementException();
+            BSTNode<E> curr = nextNode;
+            nextNode = step(curr);
+            return curr;
+        }
+    }
+    
+    /**
+     * A spliterator over a range of the tree made of an optional first node, 
+     * followed by every node of a subtree; the range ends at the fence, the 
+     * node that comes right after that subtree in order. 
+     */
+    private class TreeSpliterator implements Spliterator<E> {
+        
+        /**
+         * The node visited before the subtree, or {@code null} if there is none.
+         */
+        private BSTNode<E> head;
+        
+        /**
+         * The root of the subtree, or {@code null} if the subtree is empty.
+         */
+        private BSTNode<E> top;
+        
+        /**
+         * The first node past the end of this range, or {@code null} if the
+         * range runs to the end of the tree.
+         */
+        private final BSTNode<E> fence;
+        
+        /**
+         * The next node to visit, once walking has started.
+         */
+        private BSTNode<E> current = null;
+        
+        /**
+         * Whether walking has started; a range can no longer be split after.
+         */
+        private boolean started = false;
+        
+        /**
+         * The number of values in this range not visited yet.
+         */
+        private long remaining;
+        
+        TreeSpliterator(BSTNode<E> head, BSTNode<E> top, BSTNode<E> fence) {
+            this.head = head;
+            this.top = top;
+            this.fence = fence;
+            this.remaining = ((head != null) ? 1 : 0) + sizeOf(top);
+        }
+        
+        @Override
+        public Spliterator<E> trySplit() {
+            if(started)
+                return null;
+            // Skip over subtrees with nothing to their left, they leave nothing to hand off.
+            while(top != null && head == null && top.left == null) {
+                head = top;
+                top = top.right;
+            }
+            if(top == null)
+                return null;
+            BSTNode<E> mid = top;
+            TreeSpliterator prefix = new TreeSpliterator(head, mid.left, mid);
+            head = mid;
+            top = mid.right;
+            remaining -= prefix.remaining;
+            return prefix;
+        }
+        
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if(!started) {
+                current = (head != null) ? head : leftmost(top);
+                started = true;
+            }
+            if(current == null || current == fence)
+                return false;
+            BSTNode<E> node = current;
+            current = successor(node);
+            remaining--;
+            action.accept(node.getData());
+            return true;
+        }
+        
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            while(tryAdvance(action)) { }
+        }
+        
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+        
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | DISTINCT | NONNULL | SIZED | SUBSIZED;
+        }
+        
+        @Override
+        public Comparator<? super E> getComparator() {
+            return comparator;
+        }
+    }
+    
     /**
      * Method used to print the tree.
      */
@@ -0,0 +1,74 @@
+package tree;
+/**
+ * A node of the {@code ConcurrentBinarySearchTree}; like a {@code BSTNode} it
+ * points to its parent, its left child and its right child, but every link is
+ * volatile so that threads which search the tree without locking it always see
+ * links which other threads have finished writing. The data of a node never
+ * changes, so a value is only ever found in the node it was inserted into.
+ *
+ * @author Jesus R Mendoza
+ * @param <E> specified object type this node can hold
+ * @see ConcurrentBinarySearchTree
+ */
+public class ConcurrentBSTNode<E extends Comparable<E>>
+{
+    /**
+     * The parent reference of this node.
+     */
+    protected volatile ConcurrentBSTNode<E> parent = null;
+
+    /**
+     * The reference to the left child of this node.
+     */
+    protected volatile ConcurrentBSTNode<E> left = null;
+
+    /**
+     * The reference to the right child of this node.
+     */
+    protected volatile ConcurrentBSTNode<E> right = null;
+
+    /**
+     * Whether the value this node holds has been deleted; a deleted node with
+     * two children stays in the tree to route searches until one of its
+     * children is removed.
+     */
+    protected volatile boolean deleted = false;
+
+    /**
+     * Whether this node has been unlinked from the tree, which only ever
+     * happens to a deleted node; an unlinked node is never linked back in.
+     */
+    protected volatile boolean removed = false;
+
+    /**
+     * The data which this node holds.
+     */
+    private final E data;
+
+    /**
+     * Constructs a new {@code ConcurrentBSTNode} containing the specified data.
+     *
+     * @param dataIn the data which this node will hold
+     */
+    public ConcurrentBSTNode(E dataIn) {
+        data = dataIn;
+    }
+
+    /**
+     * Retrieves the data which this node holds.
+     *
+     * @return the data which this node holds
+     */
+    public E getData() {
+        return data;
+    }
+
+    /**
+     * Checks whether the value this node holds has been deleted.
+     *
+     * @return true if this node's value is no longer in the tree
+     */
+    public boolean isDeleted() {
+        return deleted;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,335 @@
+package tree;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
+import stack.Stack;
+
+/**
+ * A Binary Search Tree which many threads can search and modify at once.
+ * Searches never lock anything: they follow the volatile links of the nodes
+ * from the root down, exactly as in a {@code BinarySearchTree}. Insertions and
+ * deletions lock only the one or two nodes they change, so threads working in
+ * different parts of the tree do not wait for each other.
+ *
+ * Values never move between nodes, which is what lets searches run without
+ * locks. Deleting a value marks its node as deleted; a node with fewer than
+ * two children is then unlinked, locking its parent before itself, while a
+ * node with two children stays behind to route searches until it loses a
+ * child. Inserting a value whose deleted node is still in the tree simply
+ * unmarks it. A search that ends below a node which was unlinked while it ran
+ * starts over from the root.
+ *
+ * The tree is not rebalanced, so like a {@code BinarySearchTree} it stays
+ * shallow only as long as values arrive in no particular order.
+ *
+ * @author Jesus R Mendoza
+ * @param <E> specified object type this tree can hold
+ * @see ConcurrentBSTNode
+ * @see BinarySearchTree
+ */
+public class ConcurrentBinarySearchTree<E extends Comparable<E>> implements Iterable<E>
+{
+    /**
+     * A node which holds no value and whose right child is the root, so that
+     * the root has a parent to lock like every other node.
+     */
+    private final ConcurrentBSTNode<E> head = new ConcurrentBSTNode<>(null);
+
+    /**
+     * The comparator which orders the values of this tree, or {@code null} if
+     * they are ordered by their natural ordering.
+     */
+    protected final Comparator<? super E> comparator;
+
+    /**
+     * The number of values in this tree, kept in cells spread across threads
+     * so that writers do not contend on a single counter.
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Constructs an empty {@code ConcurrentBinarySearchTree} ordered by the
+     * natural ordering of its values.
+     */
+    public ConcurrentBinarySearchTree() {
+        this((Comparator<? super E>) null);
+    }
+
+    /**
+     * Constructs an empty {@code ConcurrentBinarySearchTree} whose values are
+     * ordered by the given comparator.
+     *
+     * @param cmp the comparator used to order the values, or {@code null} to
+     *            use their natural ordering
+     */
+    public ConcurrentBinarySearchTree(Comparator<? super E> cmp) {
+        comparator = cmp;
+    }
+
+    /**
+     * Constructs a {@code ConcurrentBinarySearchTree} populated with the
+     * values provided in the array.
+     *
+     * @param elems the provided array to populate the tree with
+     */
+    public ConcurrentBinarySearchTree(E[] elems) {
+        this();
+        for(E elem : elems)
+            insert(elem);
+    }
+
+    /**
+     * Compares two values by this tree's comparator, or by their natural
+     * ordering if it has none.
+     *
+     * @param a the first value to be compared
+     * @param b the second value to be compared
+     * @return  a negative number, zero, or a positive number as the first value
+     *          is less than, equal to, or greater than the second
+     */
+    protected int compare(E a, E b) {
+        return (comparator == null) ? a.compareTo(b) : comparator.compare(a, b);
+    }
+
+    /**
+     * Checks whether the given value is in this tree, without locking.
+     *
+     * @param key the value to be searched for
+     * @return    true if the value is in this tree
+     */
+    public boolean find(E key) {
+        while(true) {
+            ConcurrentBSTNode<E> par = head;
+            ConcurrentBSTNode<E> curr = head.right;
+            while(curr != null) {
+                int cmp = compare(key, curr.getData());
+                if(cmp == 0)
+                    return !curr.deleted;
+                par = curr;
+                curr = (cmp < 0) ? curr.left : curr.right;
+            }
+            // The empty spot is only proof the value is missing if its parent
+            // was still in the tree once the spot was seen.
+            if(!par.removed)
+                return false;
+        }
+    }
+
+    /**
+     * Inserts the given value; if the given value already exists a
+     * {@code DuplicateItemExceptionBST} is thrown.
+     *
+     * @param key the value to be inserted
+     */
+    public void insert(E key) {
+        if(!add(key))
+            throw new DuplicateItemExceptionBST();
+    }
+
+    /**
+     * Inserts the given value, locking only the node it is attached to, or
+     * the deleted node which held it before.
+     *
+     * @param key the value to be inserted
+     * @return    true if the value was inserted, false if it already existed
+     */
+    public boolean add(E key) {
+        retry:
+        while(true) {
+            ConcurrentBSTNode<E> par = head;
+            ConcurrentBSTNode<E> curr = head.right;
+            int cmp = 1;
+            while(curr != null) {
+                cmp = compare(key, curr.getData());
+                if(cmp == 0)
+                    break;
+                par = curr;
+                curr = (cmp < 0) ? curr.left : curr.right;
+            }
+
+            if(curr != null) {
+                if(!curr.deleted)
+                    return false;
+                synchronized(curr) {
+                    if(curr.removed)
+                        continue retry;
+                    if(!curr.deleted)
+                        return false;
+                    curr.deleted = false;
+                }
+                count.increment();
+                return true;
+            }
+
+            synchronized(par) {
+                if(par.removed || ((cmp < 0) ? par.left : par.right) != null)
+                    continue retry;
+                ConcurrentBSTNode<E> child = new ConcurrentBSTNode<>(key);
+                child.parent = par;
+                if(cmp < 0)
+                    par.left = child;
+                else
+                    par.right = child;
+            }
+            count.increment();
+            return true;
+        }
+    }
+
+    /**
+     * Deletes the given value; its node is unlinked from the tree if it has
+     * fewer than two children, and is otherwise left in place, marked deleted.
+     *
+     * @param key the value to be deleted
+     * @return    true if the value was deleted, false if it was not in the tree
+     */
+    public boolean delete(E key) {
+        ConcurrentBSTNode<E> node = nodeOf(key);
+        if(node == null)
+            return false;
+        synchronized(node) {
+            if(node.deleted)
+                return false;
+            node.deleted = true;
+        }
+        count.decrement();
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * Finds the node which holds the given value, deleted or not, without
+     * locking.
+     *
+     * @param key the value to be searched for
+     * @return    the node holding the value, or {@code null} if there is none
+     */
+    private ConcurrentBSTNode<E> nodeOf(E key) {
+        while(true) {
+            ConcurrentBSTNode<E> par = head;
+            ConcurrentBSTNode<E> curr = head.right;
+            while(curr != null) {
+                int cmp = compare(key, curr.getData());
+                if(cmp == 0)
+                    return curr;
+                par = curr;
+                curr = (cmp < 0) ? curr.left : curr.right;
+            }
+            if(!par.removed)
+                return null;
+        }
+    }
+
+    /**
+     * Unlinks the given deleted node if it has fewer than two children, by
+     * locking its parent and then the node itself; a deleted parent which
+     * that leaves with fewer than two children is unlinked in turn. The
+     * unlinked node keeps its links, so searches which already reached it
+     * carry on into the right subtree.
+     *
+     * @param node the deleted node to be unlinked
+     */
+    private void unlink(ConcurrentBSTNode<E> node) {
+        while(node != head && node.deleted) {
+            ConcurrentBSTNode<E> par = node.parent;
+            synchronized(par) {
+                if(par.removed || node.parent != par)
+                    continue;
+                synchronized(node) {
+                    if(node.removed || !node.deleted)
+                        return;
+                    ConcurrentBSTNode<E> child;
+                    if(node.left == null)
+                        child = node.right;
+                    else if(node.right == null)
+                        child = node.left;
+                    else
+                        return;
+                    if(child != null)
+                        child.parent = par;
+                    if(par.left == node)
+                        par.left = child;
+                    else
+                        par.right = child;
+                    node.removed = true;
+                }
+            }
+            node = par;
+        }
+    }
+
+    /**
+     * Returns the number of values in this tree; while other threads are
+     * modifying the tree the count may be slightly out of date.
+     *
+     * @return the number of values in this tree
+     */
+    public int size() {
+        return count.intValue();
+    }
+
+    /**
+     * Checks whether the tree is empty.
+     *
+     * @return true if the tree holds no values
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns an iterator over the values of this tree in ascending order. The
+     * iterator never throws {@code ConcurrentModificationException}; values
+     * inserted or deleted while it runs may or may not be seen.
+     *
+     * @return an iterator over the values of this tree, in ascending order
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private final Stack<ConcurrentBSTNode<E>> stk = new Stack<>();
+
+            /**
+             * The right subtree of the node returned last, still to be walked.
+             */
+            private ConcurrentBSTNode<E> pending = null;
+
+            private ConcurrentBSTNode<E> next = advance(head.right);
+
+            /**
+             * Walks to the next node holding a value which is not deleted,
+             * starting with the left spine of the given subtree.
+             */
+            private ConcurrentBSTNode<E> advance(ConcurrentBSTNode<E> curr) {
+                while(true) {
+                    for(; curr != null; curr = curr.left)
+                        stk.push(curr);
+                    if(stk.isEmpty())
+                        return null;
+                    ConcurrentBSTNode<E> node = stk.pop();
+                    curr = node.right;
+                    if(!node.deleted) {
+                        pending = curr;
+                        return node;
+                    }
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public E next() {
+                if(next == null)
+                    throw new NoSuchElementException();
+                E data = next.getData();
+                next = advance(pending);
+                return data;
+            }
+        };
+    }
+}
\ No newline at end of file
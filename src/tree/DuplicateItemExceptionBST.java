@@ -23,5 +23,18 @@ public class DuplicateItemExceptionBST extends RuntimeException
      */
     public DuplicateItemExceptionBST(String msg) {
         super(msg);
-    }    
+    }
+    
+    /**
+     * Constructs a {@code DuplicateItemException} with a detail message, which 
+     * optionally skips filling in its stack trace; when duplicates are routine,
+     * as in bulk ingest, filling in the stack trace costs far more than the 
+     * insertion which failed.
+     * 
+     * @param msg                the detail message
+     * @param writableStackTrace whether the stack trace is filled in
+     */
+    public DuplicateItemExceptionBST(String msg, boolean writableStackTrace) {
+        super(msg, null, false, writableStackTrace);
+    }
 }
\ No newline at end of file
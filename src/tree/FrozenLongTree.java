@@ -0,0 +1,139 @@
+package tree;
+
+import java.util.OptionalLong;
+
+/**
+ * An immutable snapshot of a {@code LongBinarySearchTree}, made by
+ * {@code freeze}, whose values sit in a {@code long[]} in Eytzinger order as
+ * in a {@code FrozenTree}. As the values are stored inline rather than
+ * referenced, a search never leaves the array, and every step of it is a
+ * comparison whose result is added to the next index, so the search runs
+ * without any unpredictable branch.
+ *
+ * @author Jesus R Mendoza
+ * @see LongBinarySearchTree#freeze
+ * @see FrozenTree
+ */
+public final class FrozenLongTree
+{
+    /**
+     * The values in Eytzinger order, from index 1; index 0 is unused.
+     */
+    private final long[] values;
+
+    /**
+     * The number of values.
+     */
+    private final int n;
+
+    /**
+     * Lays out the given values, which are sorted and distinct.
+     *
+     * @param sorted the values in ascending order
+     */
+    FrozenLongTree(long[] sorted) {
+        n = sorted.length;
+        values = new long[n + 1];
+        layout(sorted, 0, 1);
+    }
+
+    /**
+     * Places the sorted values, from the given index on, into the subtree
+     * rooted at the given Eytzinger index, in order. Indices are handled as
+     * {@code long}s, since twice an index past 2^30 does not fit in an
+     * {@code int}.
+     *
+     * @return the index of the first sorted value not yet placed
+     */
+    private int layout(long[] sorted, int i, long k) {
+        if(k <= n) {
+            i = layout(sorted, i, 2 * k);
+            values[(int) k] = sorted[i++];
+            i = layout(sorted, i, 2 * k + 1);
+        }
+        return i;
+    }
+
+    /**
+     * Finds the index of the smallest value at least the given one, which is
+     * where the descent last went left; 0 if there is none.
+     */
+    private int ceilingIndex(long key) {
+        long k = 1;
+        int best = 0;
+        while(k <= n) {
+            int right = (values[(int) k] < key) ? 1 : 0;
+            best = (right == 1) ? best : (int) k;
+            k = 2 * k + right;
+        }
+        return best;
+    }
+
+    /**
+     * Finds the index of the greatest value at most the given one, which is
+     * where the descent last went right; 0 if there is none.
+     */
+    private int floorIndex(long key) {
+        long k = 1;
+        int best = 0;
+        while(k <= n) {
+            int right = (values[(int) k] <= key) ? 1 : 0;
+            best = (right == 1) ? (int) k : best;
+            k = 2 * k + right;
+        }
+        return best;
+    }
+
+    /**
+     * Checks whether the given value is in this tree.
+     *
+     * @param key the value to be searched for
+     * @return    true if the value is in this tree
+     */
+    public boolean find(long key) {
+        int k = ceilingIndex(key);
+        return k != 0 && values[k] == key;
+    }
+
+    /**
+     * Returns the smallest value of this tree which is greater than or equal
+     * to the given value.
+     *
+     * @param key the value to be looked for
+     * @return    the smallest value at least the given one, if there is one
+     */
+    public OptionalLong ceiling(long key) {
+        int k = ceilingIndex(key);
+        return (k == 0) ? OptionalLong.empty() : OptionalLong.of(values[k]);
+    }
+
+    /**
+     * Returns the greatest value of this tree which is less than or equal to
+     * the given value.
+     *
+     * @param key the value to be looked for
+     * @return    the greatest value at most the given one, if there is one
+     */
+    public OptionalLong floor(long key) {
+        int k = floorIndex(key);
+        return (k == 0) ? OptionalLong.empty() : OptionalLong.of(values[k]);
+    }
+
+    /**
+     * Returns the number of values in this tree.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Checks whether this tree is empty.
+     *
+     * @return true if this tree holds no values
+     */
+    public boolean isEmpty() {
+        return n == 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+package tree;
+
+import java.util.Comparator;
+
+/**
+ * An immutable snapshot of a {@code BinarySearchTree}, made by {@code freeze},
+ * laid out for fast searching. The values sit in a single array in the
+ * Eytzinger order, the order a breadth first traversal of a perfectly
+ * balanced tree visits them: the root is at index 1 and the children of the
+ * value at index k are at indices 2k and 2k + 1. A search walks down that
+ * array instead of chasing node references, the top levels of the tree stay
+ * together in the same few cache lines, and each step picks the next index
+ * with arithmetic rather than a branch.
+ *
+ * @author Jesus R Mendoza
+ * @param <E> specified object type this tree holds
+ * @see BinarySearchTree#freeze
+ * @see FrozenLongTree
+ */
+public final class FrozenTree<E extends Comparable<E>>
+{
+    /**
+     * The values in Eytzinger order, from index 1; index 0 is unused.
+     */
+    private final Object[] values;
+
+    /**
+     * The number of values.
+     */
+    private final int n;
+
+    /**
+     * The comparator which orders the values, or {@code null} if they are
+     * ordered by their natural ordering.
+     */
+    private final Comparator<? super E> comparator;
+
+    /**
+     * Lays out the given values, which are sorted and distinct.
+     *
+     * @param sorted the values in ascending order
+     * @param cmp    the comparator which orders them, or {@code null}
+     */
+    FrozenTree(Object[] sorted, Comparator<? super E> cmp) {
+        n = sorted.length;
+        values = new Object[n + 1];
+        comparator = cmp;
+        layout(sorted, 0, 1);
+    }
+
+    /**
+     * Places the sorted values, from the given index on, into the subtree
+     * rooted at the given Eytzinger index, in order. Indices are handled as
+     * {@code long}s, since twice an index past 2^30 does not fit in an
+     * {@code int}.
+     *
+     * @return the index of the first sorted value not yet placed
+     */
+    private int layout(Object[] sorted, int i, long k) {
+        if(k <= n) {
+            i = layout(sorted, i, 2 * k);
+            values[(int) k] = sorted[i++];
+            i = layout(sorted, i, 2 * k + 1);
+        }
+        return i;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E at(int k) {
+        return (E) values[k];
+    }
+
+    private int compare(E a, E b) {
+        return (comparator == null) ? a.compareTo(b) : comparator.compare(a, b);
+    }
+
+    /**
+     * Checks whether the given value is in this tree.
+     *
+     * @param key the value to be searched for
+     * @return    true if the value is in this tree
+     */
+    public boolean find(E key) {
+        int k = ceilingIndex(key);
+        return k != 0 && compare(at(k), key) == 0;
+    }
+
+    /**
+     * Returns the smallest value of this tree which is greater than or equal
+     * to the given value.
+     *
+     * @param key the value to be looked for
+     * @return    the smallest value at least the given one, or {@code null} if
+     *            there is none
+     */
+    public E ceiling(E key) {
+        return at(ceilingIndex(key));
+    }
+
+    /**
+     * Returns the greatest value of this tree which is less than or equal to
+     * the given value.
+     *
+     * @param key the value to be looked for
+     * @return    the greatest value at most the given one, or {@code null} if
+     *            there is none
+     */
+    public E floor(E key) {
+        return at(floorIndex(key));
+    }
+
+    /**
+     * Finds the index of the smallest value at least the given one, which is
+     * where the descent last went left; 0 if there is none.
+     */
+    private int ceilingIndex(E key) {
+        long k = 1;
+        int best = 0;
+        while(k <= n) {
+            int right = (compare(at((int) k), key) < 0) ? 1 : 0;
+            best = (right == 1) ? best : (int) k;
+            k = 2 * k + right;
+        }
+        return best;
+    }
+
+    /**
+     * Finds the index of the greatest value at most the given one, which is
+     * where the descent last went right; 0 if there is none.
+     */
+    private int floorIndex(E key) {
+        long k = 1;
+        int best = 0;
+        while(k <= n) {
+            int right = (compare(at((int) k), key) <= 0) ? 1 : 0;
+            best = (right == 1) ? (int) k : best;
+            k = 2 * k + right;
+        }
+        return best;
+    }
+
+    /**
+     * Returns the number of values in this tree.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Checks whether this tree is empty.
+     *
+     * @return true if this tree holds no values
+     */
+    public boolean isEmpty() {
+        return n == 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package tree;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the values of a tree to a binary snapshot and reads them back; see
+ * {@code BinarySearchTree.save} and {@code BinarySearchTree.restore}. Codecs
+ * for {@code Integer}, {@code Long} and {@code String} values are provided.
+ *
+ * @author Jesus R Mendoza
+ * @param <E> the type of the values this codec writes and reads
+ * @see BinarySearchTree
+ */
+public interface KeyCodec<E>
+{
+    /**
+     * Writes a 4 byte big-endian {@code int}.
+     */
+    KeyCodec<Integer> INTEGER = new KeyCodec<Integer>() {
+        @Override
+        public void write(DataOutput out, Integer key) throws IOException {
+            out.writeInt(key);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    /**
+     * Writes an 8 byte big-endian {@code long}.
+     */
+    KeyCodec<Long> LONG = new KeyCodec<Long>() {
+        @Override
+        public void write(DataOutput out, Long key) throws IOException {
+            out.writeLong(key);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+
+    /**
+     * Writes the length of the string's UTF-8 encoding as an {@code int},
+     * followed by the encoding itself.
+     */
+    KeyCodec<String> STRING = new KeyCodec<String>() {
+        @Override
+        public void write(DataOutput out, String key) throws IOException {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * Writes the given value.
+     *
+     * @param out the output to write to
+     * @param key the value to be written
+     * @throws IOException if the value could not be written
+     */
+    void write(DataOutput out, E key) throws IOException;
+
+    /**
+     * Reads a value written by {@code write}.
+     *
+     * @param in the input to read from
+     * @return   the value read
+     * @throws IOException if the value could not be read
+     */
+    E read(DataInput in) throws IOException;
+}
\ No newline at end of file
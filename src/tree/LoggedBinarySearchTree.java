@@ -0,0 +1,538 @@
+package tree;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32;
+
+/**
+ * A {@code BinarySearchTree} made durable by a write-ahead log. Every insertion
+ * and deletion is appended to a log file before it is acknowledged, and
+ * {@code checkpoint} saves a snapshot of the whole tree and starts the log
+ * over; reopening the tree restores the last snapshot and replays the log.
+ *
+ * A write is only applied to the tree once its record has been forced to
+ * disk, so {@code find} and {@code size} never see a write which could still
+ * be lost, and a write whose record could not be forced is never applied at
+ * all. Until then the write waits next to the tree, and later writes of the
+ * same value are decided as if it had been applied.
+ *
+ * Forcing the log to disk is by far the slowest part of a write, so writes are
+ * committed in groups: the first writer to need the log forced takes every
+ * record appended so far and forces them in one go, while the writers arriving
+ * in the meantime append to the next group and wait for the next force. Under
+ * load a single force covers many writes. A writer which does not need each
+ * write to be durable before it returns can turn off {@code syncOnWrite} and
+ * call {@code sync} when it does; its writes become visible once they are
+ * durable.
+ *
+ * Each record is framed by its length and a CRC-32 checksum, so a record torn
+ * by a crash is recognized and dropped on recovery. Replaying the log over a
+ * snapshot which already holds some of its writes gives the same tree, so a
+ * crash in the middle of a checkpoint loses nothing. The tree must not count
+ * duplicates.
+ *
+ * All methods are thread safe; the wrapped tree must only be used through
+ * this wrapper.
+ *
+ * @author Jesus R Mendoza
+ * @param <E> specified object type the wrapped tree holds
+ * @see BinarySearchTree#save
+ * @see KeyCodec
+ */
+public final class LoggedBinarySearchTree<E extends Comparable<E>> implements Closeable
+{
+    /*
+     * The kinds of record in the log.
+     */
+    private static final byte INSERT = 1;
+    private static final byte DELETE = 2;
+
+    /**
+     * The size of the length and checksum in front of every record.
+     */
+    private static final int FRAME = 8;
+
+    /*
+     * The names of the files kept in the tree's directory.
+     */
+    private static final String SNAPSHOT = "snapshot";
+    private static final String SNAPSHOT_TMP = "snapshot.tmp";
+    private static final String LOG = "log";
+
+    private final Path dir;
+    private final BinarySearchTree<E> tree;
+    private final KeyCodec<E> codec;
+    private final FileChannel log;
+
+    /**
+     * The records appended since the last group was taken to be forced.
+     */
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+    /**
+     * The buffer of the group being forced, reused as the next pending buffer.
+     */
+    private ByteArrayOutputStream spare = new ByteArrayOutputStream();
+
+    /**
+     * The record being encoded, before it is framed into the pending buffer.
+     */
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+    private final DataOutputStream recordOut = new DataOutputStream(record);
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * The number of records appended, and the number of them forced to disk.
+     */
+    private long appended = 0;
+    private long durable = 0;
+
+    /**
+     * The writes appended to the log but not yet applied to the tree, in the
+     * order they were appended, and the latest of them for each value.
+     */
+    private final ArrayDeque<Write<E>> unapplied = new ArrayDeque<>();
+    private final TreeMap<E, Write<E>> latest;
+
+    /**
+     * Whether a writer is currently forcing a group of records.
+     */
+    private boolean flushing = false;
+
+    /**
+     * The error which made writing the log fail; once set, every later write
+     * fails as well, since the log may have lost records.
+     */
+    private IOException failure = null;
+
+    /**
+     * Whether each write waits until it is durable before returning.
+     */
+    private boolean syncOnWrite = true;
+
+    /**
+     * A write appended to the log, waiting to be applied to the tree.
+     */
+    private static final class Write<E> {
+        final long seq;
+        final byte op;
+        final E key;
+
+        Write(long seq, byte op, E key) {
+            this.seq = seq;
+            this.op = op;
+            this.key = key;
+        }
+    }
+
+    private LoggedBinarySearchTree(Path dir, BinarySearchTree<E> tree, KeyCodec<E> codec, FileChannel log) {
+        this.dir = dir;
+        this.tree = tree;
+        this.codec = codec;
+        this.log = log;
+        this.latest = new TreeMap<>(tree.comparator);
+    }
+
+    /**
+     * Opens the durable tree kept in the given directory, creating it if it
+     * does not exist yet: the given empty tree is filled from the directory's
+     * last snapshot, and then every write logged since is replayed into it.
+     * A record torn by a crash at the end of the log is dropped.
+     *
+     * @param dir   the directory holding the snapshot and the log
+     * @param tree  the empty tree to recover into, of the kind which was saved
+     * @param codec the codec which writes and reads the values
+     * @return      the recovered tree
+     * @throws IOException              if the directory could not be read
+     * @throws IllegalArgumentException if the given tree is not empty
+     */
+    public static <E extends Comparable<E>> LoggedBinarySearchTree<E> open(
+            Path dir, BinarySearchTree<E> tree, KeyCodec<E> codec) throws IOException {
+        return open(dir, tree, codec, UnaryOperator.identity());
+    }
+
+    /**
+     * Opens the durable tree kept in the given directory as {@code open} does,
+     * writing the log through the channel the given function wraps around it
+     * once it has been replayed; lets the tests watch and fail the forces.
+     */
+    static <E extends Comparable<E>> LoggedBinarySearchTree<E> open(
+            Path dir, BinarySearchTree<E> tree, KeyCodec<E> codec,
+            UnaryOperator<FileChannel> wrap) throws IOException {
+        if(!tree.isEmpty())
+            throw new IllegalArgumentException("The tree to recover into must be empty");
+        Files.createDirectories(dir);
+        Path snapshot = dir.resolve(SNAPSHOT);
+        if(Files.exists(snapshot)) {
+            try(InputStream in = Files.newInputStream(snapshot)) {
+                tree.restore(in, codec);
+            }
+        }
+        FileChannel log = FileChannel.open(dir.resolve(LOG), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long end = replay(log, tree, codec);
+            log.truncate(end);
+            log.position(end);
+        } catch (IOException | RuntimeException ex) {
+            log.close();
+            throw ex;
+        }
+        return new LoggedBinarySearchTree<>(dir, tree, codec, wrap.apply(log));
+    }
+
+    /**
+     * Applies every intact record of the log to the given tree.
+     *
+     * @return the length of the intact part of the log
+     */
+    private static <E extends Comparable<E>> long replay(FileChannel log, BinarySearchTree<E> tree,
+                                                         KeyCodec<E> codec) throws IOException {
+        long size = log.size();
+        long end = 0;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(log.position(0))));
+        CRC32 crc = new CRC32();
+        while(size - end >= FRAME) {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if(length <= 0 || length > size - end - FRAME)
+                break;
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            crc.reset();
+            crc.update(payload, 0, length);
+            if((int) crc.getValue() != checksum)
+                break;
+
+            DataInputStream rec = new DataInputStream(new ByteArrayInputStream(payload));
+            byte op = rec.readByte();
+            E key = codec.read(rec);
+            if(op == INSERT)
+                tree.add(key);
+            else if(op == DELETE)
+                tree.delete(key);
+            else
+                break;
+            end += FRAME + length;
+        }
+        return end;
+    }
+
+    /**
+     * Sets whether each write waits until it is durable before returning; if
+     * not, writes are only durable, and only visible, once {@code sync} 
+     * returns or a later write forces the log.
+     *
+     * @param sync true to make every write durable before it returns
+     */
+    public synchronized void setSyncOnWrite(boolean sync) {
+        syncOnWrite = sync;
+    }
+
+    /**
+     * Inserts the given value and logs the insertion; if the given value
+     * already exists a {@code DuplicateItemExceptionBST} is thrown.
+     *
+     * @param key the value to be inserted
+     * @throws IOException if the insertion could not be logged
+     */
+    public void insert(E key) throws IOException {
+        if(!add(key))
+            throw new DuplicateItemExceptionBST();
+    }
+
+    /**
+     * Inserts the given value and logs the insertion, unless the value was
+     * already in the tree.
+     *
+     * @param key the value to be inserted
+     * @return    true if the value was inserted
+     * @throws IOException if the insertion could not be logged
+     */
+    public boolean add(E key) throws IOException {
+        long seq;
+        boolean sync;
+        synchronized(this) {
+            checkFailure();
+            if(contains(key))
+                return false;
+            seq = append(INSERT, key);
+            sync = syncOnWrite;
+        }
+        if(sync)
+            awaitDurable(seq);
+        return true;
+    }
+
+    /**
+     * Deletes the given value and logs the deletion, unless the value was not
+     * in the tree.
+     *
+     * @param key the value to be deleted
+     * @return    true if the value was deleted
+     * @throws IOException if the deletion could not be logged
+     */
+    public boolean delete(E key) throws IOException {
+        long seq;
+        boolean sync;
+        synchronized(this) {
+            checkFailure();
+            if(!contains(key))
+                return false;
+            seq = append(DELETE, key);
+            sync = syncOnWrite;
+        }
+        if(sync)
+            awaitDurable(seq);
+        return true;
+    }
+
+    /**
+     * Checks whether the given value is in the tree once the writes still
+     * waiting to be applied are.
+     */
+    private boolean contains(E key) {
+        Write<E> last = latest.get(key);
+        return (last != null) ? last.op == INSERT : tree.find(key);
+    }
+
+    /**
+     * Checks whether the given value is in the tree; only durable writes are
+     * seen.
+     *
+     * @param key the value to be searched for
+     * @return    true if the value is in the tree
+     */
+    public synchronized boolean find(E key) {
+        return tree.find(key);
+    }
+
+    /**
+     * Returns the number of values in the tree; only durable writes are
+     * counted.
+     *
+     * @return the number of values in the tree
+     */
+    public synchronized int size() {
+        return tree.size();
+    }
+
+    /**
+     * Waits until every write made so far is durable.
+     *
+     * @throws IOException if the log could not be forced
+     */
+    public void sync() throws IOException {
+        long seq;
+        synchronized(this) {
+            seq = appended;
+        }
+        awaitDurable(seq);
+    }
+
+    /**
+     * Encodes a record into the pending group, with its frame, and queues the
+     * write to be applied once the record is durable.
+     *
+     * @return the sequence number of the record
+     */
+    private long append(byte op, E key) throws IOException {
+        record.reset();
+        recordOut.writeByte(op);
+        codec.write(recordOut, key);
+        crc.reset();
+        crc.update(record.toByteArray(), 0, record.size());
+        DataOutputStream out = new DataOutputStream(pending);
+        out.writeInt(record.size());
+        out.writeInt((int) crc.getValue());
+        record.writeTo(out);
+
+        Write<E> write = new Write<>(++appended, op, key);
+        unapplied.add(write);
+        latest.put(key, write);
+        return write.seq;
+    }
+
+    /**
+     * Applies every write whose record is durable to the tree, in order.
+     */
+    private void applyDurable() {
+        while(!unapplied.isEmpty() && unapplied.peek().seq <= durable) {
+            Write<E> write = unapplied.poll();
+            if(write.op == INSERT)
+                tree.add(write.key);
+            else
+                tree.delete(write.key);
+            if(latest.get(write.key) == write)
+                latest.remove(write.key);
+        }
+    }
+
+    /**
+     * Records that writing the log failed; the writes not yet durable are
+     * dropped, never to be applied.
+     */
+    private void fail(IOException ex) {
+        failure = ex;
+        unapplied.clear();
+        latest.clear();
+        notifyAll();
+    }
+
+    /**
+     * Waits until the record of the given sequence number is durable. If no
+     * other writer is forcing the log, this writer takes every pending record
+     * and forces them itself; otherwise it waits for that writer to finish,
+     * and tries again.
+     */
+    private void awaitDurable(long seq) throws IOException {
+        ByteArrayOutputStream group;
+        long upTo;
+        synchronized(this) {
+            while(true) {
+                checkFailure();
+                if(durable >= seq)
+                    return;
+                if(!flushing)
+                    break;
+                try {
+                    wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the log");
+                }
+            }
+            flushing = true;
+            group = pending;
+            pending = spare;
+            upTo = appended;
+        }
+
+        IOException error = null;
+        try {
+            write(group);
+            log.force(false);
+        } catch (IOException ex) {
+            error = ex;
+        }
+
+        synchronized(this) {
+            flushing = false;
+            group.reset();
+            spare = group;
+            if(error == null) {
+                durable = upTo;
+                applyDurable();
+                notifyAll();
+            }
+            else
+                fail(error);
+        }
+        if(error != null)
+            throw error;
+    }
+
+    private void write(ByteArrayOutputStream group) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(group.toByteArray());
+        while(buf.hasRemaining())
+            log.write(buf);
+    }
+
+    private void checkFailure() throws IOException {
+        if(failure != null)
+            throw new IOException("The log failed earlier and may have lost writes", failure);
+    }
+
+    /**
+     * Saves a snapshot of the tree and starts the log over. The snapshot is
+     * written to a temporary file and renamed over the last one once it is on
+     * disk, so a crash at any point leaves either the old snapshot and the
+     * full log, or the new snapshot and a log which replays harmlessly on it.
+     * Writes wait while a checkpoint is being taken.
+     *
+     * @throws IOException if the snapshot could not be saved
+     */
+    public synchronized void checkpoint() throws IOException {
+        while(flushing) {
+            try {
+                wait();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the log");
+            }
+        }
+        // The group forced while this waited may have failed, leaving the log
+        // torn; nothing may be written after it, nor saved over it.
+        checkFailure();
+        try {
+            write(pending);
+            pending.reset();
+            log.force(false);
+            durable = appended;
+            applyDurable();
+
+            Path tmp = dir.resolve(SNAPSHOT_TMP);
+            try(FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                OutputStream stream = Channels.newOutputStream(out);
+                tree.save(stream, codec);
+                out.force(true);
+            }
+            Files.move(tmp, dir.resolve(SNAPSHOT), StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+            forceDirectory();
+
+            log.truncate(0);
+            log.position(0);
+            log.force(true);
+        } catch (IOException ex) {
+            fail(ex);
+            throw ex;
+        }
+        notifyAll();
+    }
+
+    /**
+     * Forces the directory itself, so the renamed snapshot survives a crash;
+     * not every platform can open a directory, in which case this is skipped.
+     */
+    private void forceDirectory() {
+        try(FileChannel d = FileChannel.open(dir, StandardOpenOption.READ)) {
+            d.force(true);
+        } catch (IOException ex) {
+            // Directories cannot be forced here; the rename is as durable as the platform makes it.
+        }
+    }
+
+    /**
+     * Makes every write durable and closes the log.
+     *
+     * @throws IOException if the log could not be forced or closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            log.close();
+        }
+    }
+}
\ No newline at end of file
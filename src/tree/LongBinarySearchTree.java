@@ -0,0 +1,404 @@
+package tree;
+
+import java.util.Arrays;
+
+/**
+ * A binary search tree of {@code long} values, laid out in parallel arrays the 
+ * same way as an {@code ArrayBinarySearchTree}. The values are kept in a 
+ * {@code long[]} and compared with the {@code <} and {@code >} operators, so 
+ * no value is ever boxed into a {@code Long}; for the same reason the 
+ * traversals return {@code long[]} arrays rather than lists.
+ * 
+ * @author Jesus R Mendoza
+ * @see ArrayBinarySearchTree
+ * @see IntBinarySearchTree
+ */
+public class LongBinarySearchTree
+{
+    /**
+     * The slot which stands for a missing node.
+     */
+    private static final int NIL = -1;
+    
+    /**
+     * The number of slots a tree starts out with, unless told otherwise.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+    
+    /**
+     * The value held by the node in each slot.
+     */
+    private long[] data;
+    
+    /**
+     * The slot of the left child of the node in each slot; for a free slot, the
+     * next free slot in the free list.
+     */
+    private int[] left;
+    
+    /**
+     * The slot of the right child of the node in each slot.
+     */
+    private int[] right;
+    
+    /**
+     * The slot of the parent of the node in each slot.
+     */
+    private int[] parent;
+    
+    /**
+     * The slot of the top most node of this tree.
+     */
+    private int root = NIL;
+    
+    /**
+     * The first slot of the free list.
+     */
+    private int free = NIL;
+    
+    /**
+     * The number of slots that have ever been handed out; every slot past this 
+     * one has never been used.
+     */
+    private int used = 0;
+    
+    /**
+     * The number of values in this tree.
+     */
+    private int size = 0;
+    
+    /**
+     * Constructs a new and empty {@code LongBinarySearchTree}.
+     */
+    public LongBinarySearchTree() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructs a new and empty {@code LongBinarySearchTree} with room for the
+     * given number of values before its arrays have to grow.
+     * 
+     * @param capacity the number of values to make room for
+     */
+    public LongBinarySearchTree(int capacity) {
+        capacity = Math.max(capacity, 1);
+        data = new long[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        parent = new int[capacity];
+    }
+    
+    /**
+     * Constructs a new {@code LongBinarySearchTree} and populates its nodes with
+     * the values provided in the array
+     * 
+     * @param elems the provided array to populate the tree with
+     */
+    public LongBinarySearchTree(long[] elems) {
+        this(elems.length);
+        for(long elem : elems)
+            insert(elem);
+    }
+    
+    /**
+     * Inserts a given value based on whether it is greater than or less than the
+     * values already in the tree. If the given value already exists then a 
+     * {@code DuplicateItemExceptionBST} is thrown.
+     * 
+     * @param key the value to be inserted
+     */
+    public void insert(long key) {
+        int par = NIL;
+        int curr = root;
+        while(curr != NIL) {
+            long val = data[curr];
+            if(key == val)
+                throw new DuplicateItemExceptionBST();
+            par = curr;
+            curr = (key < val) ? left[curr] : right[curr];
+        }
+        
+        int child = allocate(key);
+        parent[child] = par;
+        if(par == NIL)
+            root = child;
+        else if(key < data[par])
+            left[par] = child;
+        else
+            right[par] = child;
+        size++;
+    }
+    
+    /**
+     * Deletes the node which holds the given value, if there is one. A node with
+     * two children takes the value of the maximum of its left subtree, and the
+     * node where that maximum was found is removed instead.
+     * 
+     * @param key the value to be deleted
+     */
+    public void delete(long key) {
+        int node = search(key);
+        if(node == NIL)
+            return;
+        if(left[node] != NIL && right[node] != NIL) {
+            int max = left[node];
+            while(right[max] != NIL)
+                max = right[max];
+            data[node] = data[max];
+            node = max;
+        }
+        
+        int child = (left[node] != NIL) ? left[node] : right[node];
+        int par = parent[node];
+        if(child != NIL)
+            parent[child] = par;
+        if(par == NIL)
+            root = child;
+        else if(left[par] == node)
+            left[par] = child;
+        else
+            right[par] = child;
+        release(node);
+        size--;
+    }
+    
+    /**
+     * Searches the tree and returns true if the given value is found (already
+     * contained in this tree) or false if it is not.
+     * 
+     * @param key the value to be checked
+     * @return    true if the tree contains the value given
+     */
+    public boolean find(long key) {
+        return search(key) != NIL;
+    }
+    
+    /**
+     * Finds the slot of the node holding the given value.
+     * 
+     * @param key the value to look for
+     * @return    the slot holding the value, or {@code NIL} if there is none
+     */
+    private int search(long key) {
+        int curr = root;
+        while(curr != NIL) {
+            long val = data[curr];
+            if(key == val)
+                return curr;
+            curr = (key < val) ? left[curr] : right[curr];
+        }
+        return NIL;
+    }
+    
+    /**
+     * Returns the number of values in this tree.
+     * 
+     * @return the number of values in this tree
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Checks whether this tree is empty (has no existing nodes).
+     * 
+     * @return true if the tree is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return root == NIL;
+    }
+    
+    /**
+     * Calculates how many levels tall this tree is, from the root all the way to
+     * its deepest leaf; an empty tree has a height of -1.
+     * 
+     * @return the height of this tree
+     */
+    public int height() {
+        int h = -1;
+        int[] depth = new int[size];
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+        if(root != NIL)
+            queue[tail++] = root;
+        while(head < tail) {
+            int curr = queue[head];
+            h = Math.max(h, depth[head++]);
+            if(left[curr] != NIL) {
+                depth[tail] = depth[head - 1] + 1;
+                queue[tail++] = left[curr];
+            }
+            if(right[curr] != NIL) {
+                depth[tail] = depth[head - 1] + 1;
+                queue[tail++] = right[curr];
+            }
+        }
+        return h;
+    }
+    
+    /**
+     * Returns an array of the values in this tree, ordered by the 
+     * {@code preorder} traversal algorithm (i.e. visiting the first node, then 
+     * its left child, and then its right child).
+     * 
+     * @return the ordered array
+     */
+    public long[] preorder() {
+        long[] arr = new long[size];
+        int n = 0;
+        int[] stk = new int[size];
+        int top = 0;
+        if(root != NIL)
+            stk[top++] = root;
+        while(top > 0) {
+            int curr = stk[--top];
+            arr[n++] = data[curr];
+            if(right[curr] != NIL)
+                stk[top++] = right[curr];
+            if(left[curr] != NIL)
+                stk[top++] = left[curr];
+        }
+        return arr;
+    }
+    
+    /**
+     * Returns an array of the values in this tree, ordered by the 
+     * {@code inorder} traversal algorithm (i.e. visiting the left child, then 
+     * the actual node, and then its right child).
+     * 
+     * @return the ordered array
+     */
+    public long[] inorder() {
+        long[] arr = new long[size];
+        int n = 0;
+        int[] stk = new int[size];
+        int top = 0;
+        int curr = root;
+        while(top > 0 || curr != NIL) {
+            if(curr != NIL) {
+                stk[top++] = curr;
+                curr = left[curr];
+            }
+            else {
+                curr = stk[--top];
+                arr[n++] = data[curr];
+                curr = right[curr];
+            }
+        }
+        return arr;
+    }
+    
+    /**
+     * Returns an array of the values in this tree, ordered by the 
+     * {@code postorder} traversal algorithm (i.e. visiting the left child, then
+     * the right child, and then the actual node).
+     * 
+     * @return the ordered array
+     */
+    public long[] postorder() {
+        long[] order = new long[size];
+        int k = 0;
+        int[] stk = new int[size];
+        int top = 0;
+        if(root != NIL)
+            stk[top++] = root;
+        while(top > 0) {
+            int curr = stk[--top];
+            order[k++] = data[curr];
+            if(left[curr] != NIL)
+                stk[top++] = left[curr];
+            if(right[curr] != NIL)
+                stk[top++] = right[curr];
+        }
+        
+        long[] arr = new long[size];
+        for(int i = 0; i < k; i++)
+            arr[i] = order[k - 1 - i];
+        return arr;
+    }
+    
+    /**
+     * Returns an array of the values in this tree, ordered by the 
+     * {@code breadthfirst} traversal algorithm (i.e. visiting each node from 
+     * left to right for each level of the tree).
+     * 
+     * @return the ordered array
+     */
+    public long[] breadthfirst() {
+        long[] arr = new long[size];
+        int n = 0;
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+        if(root != NIL)
+            queue[tail++] = root;
+        while(head < tail) {
+            int curr = queue[head++];
+            arr[n++] = data[curr];
+            if(left[curr] != NIL)
+                queue[tail++] = left[curr];
+            if(right[curr] != NIL)
+                queue[tail++] = right[curr];
+        }
+        return arr;
+    }
+    
+    /**
+     * Makes an immutable copy of this tree laid out in a single array for 
+     * fast, branch-free searching; later changes to this tree do not affect
+     * the copy.
+     * 
+     * @return the frozen copy of this tree
+     */
+    public FrozenLongTree freeze() {
+        return new FrozenLongTree(inorder());
+    }
+    
+    /**
+     * Hands out a slot for a new leaf holding the given value, reusing a freed 
+     * slot if there is one and growing the arrays if every slot is taken.
+     * 
+     * @param key the value the new node will hold
+     * @return    the slot of the new node
+     */
+    private int allocate(long key) {
+        int slot;
+        if(free != NIL) {
+            slot = free;
+            free = left[slot];
+        }
+        else {
+            if(used == data.length)
+                grow();
+            slot = used++;
+        }
+        data[slot] = key;
+        left[slot] = NIL;
+        right[slot] = NIL;
+        return slot;
+    }
+    
+    /**
+     * Returns the given slot to the free list.
+     * 
+     * @param slot the slot to be freed
+     */
+    private void release(int slot) {
+        right[slot] = NIL;
+        parent[slot] = NIL;
+        left[slot] = free;
+        free = slot;
+    }
+    
+    /**
+     * Doubles the number of slots in each of the arrays.
+     */
+    private void grow() {
+        int capacity = data.length * 2;
+        data = Arrays.copyOf(data, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+    }
+}
\ No newline at end of file
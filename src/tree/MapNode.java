@@ -0,0 +1,83 @@
+package tree;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A node of the {@code BSTMap}; a red-black node whose data is a key, which
+ * additionally holds the value associated with that key. A node is also the
+ * map entry handed out while iterating the map, so setting its value writes
+ * straight through to the map.
+ *
+ * @author Jesus R Mendoza
+ * @param <K> specified type of the keys
+ * @param <V> specified type of the values
+ * @see BSTMap
+ */
+public class MapNode<K extends Comparable<K>, V> extends RBNode<K> implements Map.Entry<K, V>
+{
+    /**
+     * The value associated with this node's key.
+     */
+    protected V value;
+
+    /**
+     * Constructs a new {@code MapNode} holding the specified key, with no value.
+     *
+     * @param keyIn the key which this node will hold
+     */
+    public MapNode(K keyIn) {
+        super(keyIn);
+    }
+
+    /**
+     * Retrieves the key which this node holds.
+     *
+     * @return the key which this node holds
+     */
+    @Override
+    public K getKey() {
+        return getData();
+    }
+
+    /**
+     * Retrieves the value associated with this node's key.
+     *
+     * @return the value which this node holds
+     */
+    @Override
+    public V getValue() {
+        return value;
+    }
+
+    /**
+     * Associates the given value with this node's key.
+     *
+     * @param newValue the value which this node will now hold
+     * @return         the value this node held before
+     */
+    @Override
+    public V setValue(V newValue) {
+        V old = value;
+        value = newValue;
+        return old;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(!(o instanceof Map.Entry))
+            return false;
+        Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+        return Objects.equals(getKey(), e.getKey()) && Objects.equals(value, e.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getKey()) ^ Objects.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+        return getKey() + "=" + value;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,379 @@
+package tree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.OptionalLong;
+import java.util.PrimitiveIterator;
+
+/**
+ * A read-only search tree of {@code long} values which lives in a file and is
+ * queried straight through memory mappings of it, so no value is ever copied
+ * onto the heap and opening even a very large file takes no time at all.
+ *
+ * The file holds the values in ascending order, which is the implicit tree a
+ * binary search walks: the middle value is the root and each half is a
+ * subtree. A lookup therefore touches about log n values, while a range of
+ * values is read sequentially from one place in the file. The file is mapped
+ * in chunks of up to 1 GiB, since a single mapping cannot cover more than
+ * 2 GiB, so files of billions of values can be queried too.
+ *
+ * A file is written from the values of a {@code LongBinarySearchTree}, of a
+ * {@code BinarySearchTree} of {@code Long}s, or of any ascending sequence.
+ *
+ * @author Jesus R Mendoza
+ * @see LongBinarySearchTree
+ */
+public final class MappedLongTree implements Closeable
+{
+    /**
+     * The first eight bytes of every file; "BSTLONG1".
+     */
+    private static final long MAGIC = 0x4253544C4F4E4731L;
+
+    /**
+     * The size of the header, which holds the magic number and the number of
+     * values.
+     */
+    private static final int HEADER = 16;
+
+    /**
+     * The base two logarithm of the number of values in every chunk but the
+     * last; 2^27 values make chunks of 1 GiB.
+     */
+    private static final int CHUNK_SHIFT = 27;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    /**
+     * The size of the buffer used to write a file.
+     */
+    private static final int WRITE_BUFFER = 1 << 16;
+
+    /**
+     * The suffix of the temporary file a file is written to before it is
+     * moved in place.
+     */
+    private static final String TMP_SUFFIX = ".tmp";
+
+    /**
+     * The file's channel, kept open until this tree is closed.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The mappings of the file's values, one per chunk.
+     */
+    private final MappedByteBuffer[] chunks;
+
+    /**
+     * The number of values in the file.
+     */
+    private final long n;
+
+    private MappedLongTree(FileChannel channel, MappedByteBuffer[] chunks, long n) {
+        this.channel = channel;
+        this.chunks = chunks;
+        this.n = n;
+    }
+
+    /**
+     * Writes the values of the given tree to the given file, replacing it.
+     *
+     * @param file the file to write
+     * @param tree the tree whose values will be written
+     * @throws IOException if the file could not be written
+     */
+    public static void write(Path file, LongBinarySearchTree tree) throws IOException {
+        long[] keys = tree.inorder();
+        write(file, new PrimitiveIterator.OfLong() {
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < keys.length;
+            }
+
+            @Override
+            public long nextLong() {
+                return keys[i++];
+            }
+        });
+    }
+
+    /**
+     * Writes the values of the given tree to the given file, replacing it.
+     *
+     * @param file the file to write
+     * @param tree the tree whose values will be written
+     * @throws IOException if the file could not be written
+     */
+    public static void write(Path file, BinarySearchTree<Long> tree) throws IOException {
+        Iterator<Long> it = tree.iterator();
+        write(file, new PrimitiveIterator.OfLong() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public long nextLong() {
+                return it.next();
+            }
+        });
+    }
+
+    /**
+     * Writes the given values to the given file, replacing it; the values are
+     * streamed to the file, so there may be more of them than fit in memory.
+     * They are written to a temporary file next to it, which is then moved
+     * over it atomically, so that a reader which still has the old file mapped
+     * keeps reading the old file whole, and a failed write leaves it as it was.
+     *
+     * @param file   the file to write
+     * @param values the values to be written, in strictly ascending order
+     * @throws IOException              if the file could not be written
+     * @throws IllegalArgumentException if the values are not strictly ascending
+     */
+    public static void write(Path file, PrimitiveIterator.OfLong values) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + TMP_SUFFIX);
+        try {
+            writeTo(tmp, values);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(tmp);
+            throw ex;
+        }
+    }
+
+    private static void writeTo(Path file, PrimitiveIterator.OfLong values) throws IOException {
+        try(FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(WRITE_BUFFER);
+            buf.putLong(MAGIC).putLong(0L);
+            long count = 0;
+            long prev = 0;
+            while(values.hasNext()) {
+                long key = values.nextLong();
+                if(count > 0 && key <= prev)
+                    throw new IllegalArgumentException("Values are not strictly ascending at " + key);
+                if(!buf.hasRemaining())
+                    drain(out, buf);
+                buf.putLong(key);
+                prev = key;
+                count++;
+            }
+            drain(out, buf);
+            buf.putLong(count).flip();
+            out.write(buf, Long.BYTES);
+            out.force(true);
+        }
+    }
+
+    private static void drain(FileChannel out, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while(buf.hasRemaining())
+            out.write(buf);
+        buf.clear();
+    }
+
+    /**
+     * Opens a file written by {@code write}, mapping it into memory read-only.
+     *
+     * @param file the file to open
+     * @return     the tree held by the file
+     * @throws IOException if the file could not be opened or is malformed
+     */
+    public static MappedLongTree open(Path file) throws IOException {
+        FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            while(header.hasRemaining() && in.read(header, header.position()) > 0) { }
+            header.flip();
+            if(header.remaining() < HEADER || header.getLong() != MAGIC)
+                throw new IOException("Not a mapped tree file: " + file);
+            long count = header.getLong();
+            if(count < 0 || in.size() != HEADER + count * Long.BYTES)
+                throw new IOException("Malformed mapped tree file: " + file);
+
+            MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((count + CHUNK_MASK) >>> CHUNK_SHIFT)];
+            for(int c = 0; c < chunks.length; c++) {
+                long first = (long) c << CHUNK_SHIFT;
+                long keys = Math.min(CHUNK_MASK + 1, count - first);
+                chunks[c] = in.map(FileChannel.MapMode.READ_ONLY, HEADER + first * Long.BYTES, keys * Long.BYTES);
+            }
+            return new MappedLongTree(in, chunks, count);
+        } catch (IOException | RuntimeException ex) {
+            in.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Closes the file. The mappings stay valid until they are garbage
+     * collected, but this tree must not be used any more.
+     *
+     * @throws IOException if the file could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Returns the value at the given position in ascending order.
+     *
+     * @param i the position of the value, from 0
+     * @return  the i-th smallest value
+     * @throws  IndexOutOfBoundsException if i is not a valid position
+     */
+    public long get(long i) {
+        if(i < 0 || i >= n)
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + n);
+        return key(i);
+    }
+
+    private long key(long i) {
+        return chunks[(int) (i >>> CHUNK_SHIFT)].getLong((int) (i & CHUNK_MASK) << 3);
+    }
+
+    /**
+     * Returns the number of values in this tree.
+     *
+     * @return the number of values
+     */
+    public long size() {
+        return n;
+    }
+
+    /**
+     * Checks whether this tree is empty.
+     *
+     * @return true if this tree holds no values
+     */
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    /**
+     * Finds the position of the first value which is greater than the given
+     * value, or also equal to it if inclusive; a binary search, which is a
+     * descent of the implicit tree.
+     */
+    private long search(long key, boolean inclusive) {
+        long lo = 0;
+        long hi = n;
+        while(lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            long k = key(mid);
+            if(k < key || (k == key && !inclusive))
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Checks whether the given value is in this tree.
+     *
+     * @param key the value to be searched for
+     * @return    true if the value is in this tree
+     */
+    public boolean find(long key) {
+        long i = search(key, true);
+        return i < n && key(i) == key;
+    }
+
+    /**
+     * Returns the number of values of this tree which are less than the given
+     * value.
+     *
+     * @param key the value to be ranked
+     * @return    the number of smaller values
+     */
+    public long rank(long key) {
+        return search(key, true);
+    }
+
+    /**
+     * Returns the greatest value of this tree which is less than or equal to
+     * the given value.
+     *
+     * @param key the value to be looked for
+     * @return    the greatest value at most the given one, if there is one
+     */
+    public OptionalLong floor(long key) {
+        long i = search(key, false) - 1;
+        return (i < 0) ? OptionalLong.empty() : OptionalLong.of(key(i));
+    }
+
+    /**
+     * Returns the smallest value of this tree which is greater than or equal
+     * to the given value.
+     *
+     * @param key the value to be looked for
+     * @return    the smallest value at least the given one, if there is one
+     */
+    public OptionalLong ceiling(long key) {
+        long i = search(key, true);
+        return (i == n) ? OptionalLong.empty() : OptionalLong.of(key(i));
+    }
+
+    /**
+     * Counts the values of this tree which are at least {@code lo} and less
+     * than {@code hi}, in O(log n) time. Since {@code hi} is exclusive, a
+     * value of {@code Long.MAX_VALUE} is never counted; {@code find} tells
+     * whether it is there.
+     *
+     * @param lo the smallest value counted
+     * @param hi the value above every value counted
+     * @return   the number of values in the range
+     * @throws   IllegalArgumentException if {@code lo} is greater than {@code hi}
+     */
+    public long countRange(long lo, long hi) {
+        if(lo > hi)
+            throw new IllegalArgumentException("lo > hi");
+        return search(hi, true) - search(lo, true);
+    }
+
+    /**
+     * Returns an iterator over the values of this tree which are at least
+     * {@code lo} and less than {@code hi}, in ascending order; the values are
+     * read from the file one after the other. Since {@code hi} is exclusive, a
+     * value of {@code Long.MAX_VALUE} is never returned.
+     *
+     * @param lo the smallest value returned
+     * @param hi the value above every value returned
+     * @return   an iterator over the values in the range
+     * @throws   IllegalArgumentException if {@code lo} is greater than {@code hi}
+     */
+    public PrimitiveIterator.OfLong range(long lo, long hi) {
+        if(lo > hi)
+            throw new IllegalArgumentException("lo > hi");
+        long first = search(lo, true);
+        long end = search(hi, true);
+        return new PrimitiveIterator.OfLong() {
+            private long i = first;
+
+            @Override
+            public boolean hasNext() {
+                return i < end;
+            }
+
+            @Override
+            public long nextLong() {
+                if(i >= end)
+                    throw new NoSuchElementException();
+                return key(i++);
+            }
+        };
+    }
+}
\ No newline at end of file
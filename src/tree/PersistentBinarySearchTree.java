@@ -0,0 +1,432 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import stack.Stack;
+
+/**
+ * An immutable, persistent Binary Search Tree. Inserting or deleting a value
+ * does not change the tree; it returns a new tree which shares every node off
+ * the path to the changed value with the old one, and copies only the nodes on
+ * that path. Any tree can therefore be kept around as a snapshot for free,
+ * and read by any number of threads while newer versions are being made.
+ *
+ * Since no node can point to a parent which is copied later, nodes have no
+ * parent links, and every operation works top-down from the root. The tree is
+ * kept balanced the way an {@code AVLTree} is, rebuilding the path instead of
+ * rotating in place, so it is at most about 1.44 log n tall and an insertion or
+ * deletion allocates O(log n) nodes.
+ *
+ * @author Jesus R Mendoza
+ * @param <E> specified object type this tree can hold
+ * @see PersistentNode
+ * @see AVLTree
+ */
+public final class PersistentBinarySearchTree<E extends Comparable<E>> implements Iterable<E>
+{
+    /**
+     * The root of this tree, or {@code null} if this tree is empty.
+     */
+    private final PersistentNode<E> root;
+
+    /**
+     * The comparator which orders the values of this tree, or {@code null} if
+     * they are ordered by their natural ordering.
+     */
+    private final Comparator<? super E> comparator;
+
+    /**
+     * Constructs an empty {@code PersistentBinarySearchTree} ordered by the
+     * natural ordering of its values.
+     */
+    public PersistentBinarySearchTree() {
+        this(null, null);
+    }
+
+    /**
+     * Constructs an empty {@code PersistentBinarySearchTree} whose values are
+     * ordered by the given comparator.
+     *
+     * @param cmp the comparator used to order the values, or {@code null} to
+     *            use their natural ordering
+     */
+    public PersistentBinarySearchTree(Comparator<? super E> cmp) {
+        this(null, cmp);
+    }
+
+    /**
+     * Constructs a {@code PersistentBinarySearchTree} populated with the
+     * values provided in the array.
+     *
+     * @param elems the provided array to populate the tree with
+     */
+    public PersistentBinarySearchTree(E[] elems) {
+        PersistentBinarySearchTree<E> t = new PersistentBinarySearchTree<>();
+        for(E elem : elems)
+            t = t.insert(elem);
+        this.root = t.root;
+        this.comparator = null;
+    }
+
+    /**
+     * Constructs a tree around the given root.
+     */
+    private PersistentBinarySearchTree(PersistentNode<E> root, Comparator<? super E> cmp) {
+        this.root = root;
+        this.comparator = cmp;
+    }
+
+    /**
+     * Wraps the given root as a tree ordered the same way as this one; this
+     * tree itself is returned if the root did not change.
+     */
+    private PersistentBinarySearchTree<E> with(PersistentNode<E> newRoot) {
+        return (newRoot == root) ? this : new PersistentBinarySearchTree<>(newRoot, comparator);
+    }
+
+    private int compare(E a, E b) {
+        return (comparator == null) ? a.compareTo(b) : comparator.compare(a, b);
+    }
+
+    /**
+     * Returns the root of this tree.
+     *
+     * @return the root, or {@code null} if this tree is empty
+     */
+    public PersistentNode<E> getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns a new tree holding the values of this tree and the given value;
+     * this tree is left as it was. If the given value already exists a
+     * {@code DuplicateItemExceptionBST} is thrown.
+     *
+     * @param key the value to be inserted
+     * @return    the tree with the value inserted
+     */
+    public PersistentBinarySearchTree<E> insert(E key) {
+        return with(insert(root, key));
+    }
+
+    private PersistentNode<E> insert(PersistentNode<E> node, E key) {
+        if(node == null)
+            return new PersistentNode<>(key, null, null);
+        int cmp = compare(key, node.getData());
+        if(cmp == 0)
+            throw new DuplicateItemExceptionBST();
+        if(cmp < 0)
+            return balance(node.getData(), insert(node.left, key), node.right);
+        return balance(node.getData(), node.left, insert(node.right, key));
+    }
+
+    /**
+     * Returns a new tree holding the values of this tree without the given
+     * value; this tree is left as it was, and returned itself if the value is
+     * not in it. A node with two children takes the value of the maximum of
+     * its left subtree, which is removed instead.
+     *
+     * @param key the value to be deleted
+     * @return    the tree with the value deleted
+     */
+    public PersistentBinarySearchTree<E> delete(E key) {
+        return with(delete(root, key));
+    }
+
+    private PersistentNode<E> delete(PersistentNode<E> node, E key) {
+        if(node == null)
+            return null;
+        int cmp = compare(key, node.getData());
+        if(cmp < 0) {
+            PersistentNode<E> left = delete(node.left, key);
+            return (left == node.left) ? node : balance(node.getData(), left, node.right);
+        }
+        if(cmp > 0) {
+            PersistentNode<E> right = delete(node.right, key);
+            return (right == node.right) ? node : balance(node.getData(), node.left, right);
+        }
+        if(node.left == null)
+            return node.right;
+        if(node.right == null)
+            return node.left;
+        return balance(rightmost(node.left).getData(), deleteMax(node.left), node.right);
+    }
+
+    private PersistentNode<E> deleteMax(PersistentNode<E> node) {
+        if(node.right == null)
+            return node.left;
+        return balance(node.getData(), node.left, deleteMax(node.right));
+    }
+
+    /**
+     * Builds a node out of the given value and subtrees, whose heights differ
+     * by at most two, rotating it as an {@code AVLTree} would if they differ
+     * by two; every node the rotations touch is a new one.
+     */
+    private PersistentNode<E> balance(E data, PersistentNode<E> left, PersistentNode<E> right) {
+        int diff = PersistentNode.heightOf(left) - PersistentNode.heightOf(right);
+        if(diff > 1) {
+            if(PersistentNode.heightOf(left.left) < PersistentNode.heightOf(left.right)) {
+                PersistentNode<E> pivot = left.right;
+                return new PersistentNode<>(pivot.getData(),
+                        new PersistentNode<>(left.getData(), left.left, pivot.left),
+                        new PersistentNode<>(data, pivot.right, right));
+            }
+            return new PersistentNode<>(left.getData(), left.left,
+                    new PersistentNode<>(data, left.right, right));
+        }
+        if(diff < -1) {
+            if(PersistentNode.heightOf(right.right) < PersistentNode.heightOf(right.left)) {
+                PersistentNode<E> pivot = right.left;
+                return new PersistentNode<>(pivot.getData(),
+                        new PersistentNode<>(data, left, pivot.left),
+                        new PersistentNode<>(right.getData(), pivot.right, right.right));
+            }
+            return new PersistentNode<>(right.getData(),
+                    new PersistentNode<>(data, left, right.left), right.right);
+        }
+        return new PersistentNode<>(data, left, right);
+    }
+
+    /**
+     * Checks whether the given value is in this tree.
+     *
+     * @param key the value to be searched for
+     * @return    true if the value is in this tree
+     */
+    public boolean find(E key) {
+        PersistentNode<E> curr = root;
+        while(curr != null) {
+            int cmp = compare(key, curr.getData());
+            if(cmp == 0)
+                return true;
+            curr = (cmp < 0) ? curr.left : curr.right;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of values in this tree, in O(1) time.
+     *
+     * @return the number of values in this tree
+     */
+    public int size() {
+        return PersistentNode.sizeOf(root);
+    }
+
+    /**
+     * Checks whether the tree is empty.
+     *
+     * @return true if this tree holds no values
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Returns the height of this tree, in O(1) time; an empty tree has a height
+     * of -1.
+     *
+     * @return the height of this tree
+     */
+    public int height() {
+        return PersistentNode.heightOf(root);
+    }
+
+    /**
+     * Returns the k-th smallest value of this tree, counting from 0.
+     *
+     * @param k the rank of the value
+     * @return  the value of the given rank
+     * @throws  IndexOutOfBoundsException if k is not a valid rank
+     */
+    public E select(int k) {
+        if(k < 0 || k >= size())
+            throw new IndexOutOfBoundsException("Rank: " + k + ", Size: " + size());
+        PersistentNode<E> curr = root;
+        while(true) {
+            int leftSize = PersistentNode.sizeOf(curr.left);
+            if(k < leftSize)
+                curr = curr.left;
+            else if(k > leftSize) {
+                k -= leftSize + 1;
+                curr = curr.right;
+            }
+            else
+                return curr.getData();
+        }
+    }
+
+    /**
+     * Returns the number of values of this tree which are less than the given
+     * value.
+     *
+     * @param key the value to be ranked
+     * @return    the number of smaller values
+     */
+    public int rank(E key) {
+        int r = 0;
+        PersistentNode<E> curr = root;
+        while(curr != null) {
+            int cmp = compare(key, curr.getData());
+            if(cmp <= 0)
+                curr = curr.left;
+            else {
+                r += PersistentNode.sizeOf(curr.left) + 1;
+                curr = curr.right;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Returns the greatest value of this tree which is less than or equal to
+     * the given value.
+     *
+     * @param key the value to be looked for
+     * @return    the greatest value at most the given one, or {@code null} if
+     *            there is none
+     */
+    public E floor(E key) {
+        E best = null;
+        PersistentNode<E> curr = root;
+        while(curr != null) {
+            int cmp = compare(key, curr.getData());
+            if(cmp == 0)
+                return curr.getData();
+            if(cmp > 0) {
+                best = curr.getData();
+                curr = curr.right;
+            }
+            else
+                curr = curr.left;
+        }
+        return best;
+    }
+
+    /**
+     * Returns the smallest value of this tree which is greater than or equal
+     * to the given value.
+     *
+     * @param key the value to be looked for
+     * @return    the smallest value at least the given one, or {@code null} if
+     *            there is none
+     */
+    public E ceiling(E key) {
+        E best = null;
+        PersistentNode<E> curr = root;
+        while(curr != null) {
+            int cmp = compare(key, curr.getData());
+            if(cmp == 0)
+                return curr.getData();
+            if(cmp < 0) {
+                best = curr.getData();
+                curr = curr.left;
+            }
+            else
+                curr = curr.right;
+        }
+        return best;
+    }
+
+    /**
+     * Returns the smallest value of this tree.
+     *
+     * @return the smallest value, or {@code null} if this tree is empty
+     */
+    public E min() {
+        if(root == null)
+            return null;
+        PersistentNode<E> curr = root;
+        while(curr.left != null)
+            curr = curr.left;
+        return curr.getData();
+    }
+
+    /**
+     * Returns the greatest value of this tree.
+     *
+     * @return the greatest value, or {@code null} if this tree is empty
+     */
+    public E max() {
+        return (root == null) ? null : rightmost(root).getData();
+    }
+
+    private PersistentNode<E> rightmost(PersistentNode<E> node) {
+        while(node.right != null)
+            node = node.right;
+        return node;
+    }
+
+    /**
+     * Returns the values of this tree in {@code inorder}.
+     *
+     * @return the values in ascending order
+     */
+    public ArrayList<E> inorder() {
+        ArrayList<E> arr = new ArrayList<>(size());
+        for(E value : this)
+            arr.add(value);
+        return arr;
+    }
+
+    /**
+     * Returns the values of this tree in {@code preorder}.
+     *
+     * @return the values in preorder
+     */
+    public ArrayList<E> preorder() {
+        ArrayList<E> arr = new ArrayList<>(size());
+        if(root != null) {
+            Stack<PersistentNode<E>> stk = new Stack<>(height() + 2);
+            stk.push(root);
+            while(!stk.isEmpty()) {
+                PersistentNode<E> curr = stk.pop();
+                arr.add(curr.getData());
+                if(curr.right != null)
+                    stk.push(curr.right);
+                if(curr.left != null)
+                    stk.push(curr.left);
+            }
+        }
+        return arr;
+    }
+
+    /**
+     * Returns an iterator over the values of this tree in ascending order; as
+     * the tree never changes, the iterator never fails.
+     *
+     * @return an iterator over the values of this tree, in ascending order
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private final Stack<PersistentNode<E>> stk = new Stack<>(height() + 2);
+
+            {
+                pushLeft(root);
+            }
+
+            private void pushLeft(PersistentNode<E> node) {
+                for(; node != null; node = node.left)
+                    stk.push(node);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !stk.isEmpty();
+            }
+
+            @Override
+            public E next() {
+                if(stk.isEmpty())
+                    throw new NoSuchElementException();
+                PersistentNode<E> node = stk.pop();
+                pushLeft(node.right);
+                return node.getData();
+            }
+        };
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package tree;
+/**
+ * A node of the {@code PersistentBinarySearchTree}. Unlike a {@code BSTNode}
+ * it never changes once constructed and does not point to its parent, so the
+ * same node can sit in any number of trees at once; a node is only ever shared,
+ * never modified. It remembers the height and the size of the subtree it is
+ * the root of, which never change either.
+ *
+ * @author Jesus R Mendoza
+ * @param <E> specified object type this node can hold
+ * @see PersistentBinarySearchTree
+ */
+public final class PersistentNode<E extends Comparable<E>>
+{
+    /**
+     * The reference to the left child of this node.
+     */
+    final PersistentNode<E> left;
+
+    /**
+     * The reference to the right child of this node.
+     */
+    final PersistentNode<E> right;
+
+    /**
+     * The height of the subtree rooted at this node; a leaf has a height of 0.
+     */
+    final int height;
+
+    /**
+     * The number of nodes in the subtree rooted at this node, itself included.
+     */
+    final int size;
+
+    /**
+     * The data which this node holds.
+     */
+    private final E data;
+
+    /**
+     * Constructs a new {@code PersistentNode} containing the specified data,
+     * with the given subtrees as its children.
+     *
+     * @param dataIn the data which this node will hold
+     * @param left   the left child of this node, or {@code null}
+     * @param right  the right child of this node, or {@code null}
+     */
+    PersistentNode(E dataIn, PersistentNode<E> left, PersistentNode<E> right) {
+        this.data = dataIn;
+        this.left = left;
+        this.right = right;
+        this.height = 1 + Math.max(heightOf(left), heightOf(right));
+        this.size = 1 + sizeOf(left) + sizeOf(right);
+    }
+
+    /**
+     * Retrieves the data which this node holds.
+     *
+     * @return the data which this node holds
+     */
+    public E getData() {
+        return data;
+    }
+
+    /**
+     * Retrieves the height of the subtree rooted at this node.
+     *
+     * @return the height of this node
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Retrieves the number of nodes in the subtree rooted at this node.
+     *
+     * @return the size of this node's subtree
+     */
+    public int getSize() {
+        return size;
+    }
+
+    static int heightOf(PersistentNode<?> node) {
+        return (node == null) ? -1 : node.height;
+    }
+
+    static int sizeOf(PersistentNode<?> node) {
+        return (node == null) ? 0 : node.size;
+    }
+}
\ No newline at end of file
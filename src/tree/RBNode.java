@@ -0,0 +1,35 @@
+package tree;
+/**
+ * A node of the {@code RedBlackTree}; a {@code BSTNode} which is additionally
+ * colored either red or black. Every node starts out red when it is inserted,
+ * the tree then recolors it as it rebalances itself.
+ * 
+ * @author Jesus R Mendoza
+ * @param <E> specified object type this node can hold
+ * @see RedBlackTree
+ */
+public class RBNode<E extends Comparable<E>> extends BSTNode<E>
+{
+    /**
+     * The color of this node; true if this node is red, false if it is black.
+     */
+    protected boolean red = true;
+    
+    /**
+     * Constructs a new, red {@code RBNode} containing the specified data.
+     * 
+     * @param dataIn the data which this node will hold
+     */
+    public RBNode(E dataIn) {
+        super(dataIn);
+    }
+    
+    /**
+     * Checks whether this node is red.
+     * 
+     * @return true if this node is red, false if it is black
+     */
+    public boolean isRed() {
+        return red;
+    }
+}
\ No newline at end of file
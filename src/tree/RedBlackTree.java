@@ -0,0 +1,281 @@
+package tree;
+
+import java.util.Comparator;
+
+/**
+ * A {@code BinarySearchTree} which keeps itself balanced by coloring each of its
+ * nodes red or black. After every insertion and deletion the tree is recolored
+ * and rotated so that no red node has a red child and every path from a node
+ * down to a missing child passes through the same number of black nodes; this
+ * keeps the height of the tree within 2 log(n + 1), so {@code find}, 
+ * {@code insert} and {@code delete} never degrade the way an unbalanced tree 
+ * does when it is fed keys in sorted order.
+ * 
+ * @author Jesus R Mendoza
+ * @param <E> specified object type this tree can hold
+ * @see RBNode
+ */
+public class RedBlackTree<E extends Comparable<E>> extends BinarySearchTree<E>
+{
+    /**
+     * Constructs a new and empty {@code RedBlackTree}.
+     */
+    public RedBlackTree() {
+        super();
+    }
+    
+    /**
+     * Constructs a new and empty {@code RedBlackTree} whose values are ordered by the
+     * given comparator instead of their natural ordering.
+     * 
+     * @param cmp the comparator used to order the values, or {@code null} to use
+     *            their natural ordering
+     */
+    public RedBlackTree(Comparator<? super E> cmp) {
+        super(cmp);
+    }
+    
+    /**
+     * Constructs a new {@code RedBlackTree} and populates its nodes with the
+     * values provided in the array
+     * 
+     * @param elems the provided array to populate the tree with
+     */
+    public RedBlackTree(E[] elems) {
+        super(elems);
+    }
+    
+    /**
+     * Recolors and rotates the nodes above a red node, inserted in the same
+     * place a {@code BinarySearchTree} would, until the tree is balanced again.
+     * 
+     * @param node the node which was just inserted
+     */
+    @Override
+    protected void inserted(BSTNode<E> node) {
+        insertFixup(node);
+    }
+    
+    /**
+     * Replaces the contents of this tree with the values provided in the array,
+     * as a {@code BinarySearchTree} does. Every level of the built tree is full
+     * except possibly the deepest one, so coloring the deepest level red and 
+     * all other nodes black satisfies the red-black properties.
+     * 
+     * @param elems the provided array to populate the tree with
+     */
+    @Override
+    public void load(E[] elems) {
+        super.load(elems);
+        int redDepth = 0;
+        for(BSTNode<E> node = root; node != null; node = node.right)
+            redDepth++;
+        colorLevels(root, 0, redDepth - 1);
+    }
+    
+    /**
+     * Colors the nodes of the given subtree red if they sit at the given depth,
+     * and black otherwise.
+     * 
+     * @param node     the root of the subtree to be colored
+     * @param depth    the depth of the given node
+     * @param redDepth the depth at which nodes will be colored red
+     */
+    private void colorLevels(BSTNode<E> node, int depth, int redDepth) {
+        if(node != null) {
+            setRed(node, depth == redDepth && depth > 0);
+            colorLevels(node.left, depth + 1, redDepth);
+            colorLevels(node.right, depth + 1, redDepth);
+        }
+    }
+    
+    /**
+     * Creates a new, red {@code RBNode} holding the given value.
+     * 
+     * @param key the value the node will hold
+     * @return    the new node
+     */
+    @Override
+    protected BSTNode<E> newNode(E key) {
+        return new RBNode<>(key);
+    }
+    
+    /**
+     * Tags a node saved in a snapshot with its color; 1 for red, 0 for black.
+     * 
+     * @param node the node being saved
+     * @return     the node's tag
+     */
+    @Override
+    protected int tagOf(BSTNode<E> node) {
+        return isRed(node) ? 1 : 0;
+    }
+    
+    /**
+     * Colors a node read back from a snapshot as it was when saved.
+     * 
+     * @param node the node being restored
+     * @param tag  the node's tag
+     */
+    @Override
+    protected void restoreTag(BSTNode<E> node, int tag) {
+        setRed(node, tag == 1);
+    }
+    
+    /**
+     * Restores the red-black properties after the given red node was attached;
+     * while its parent is also red the uncle decides whether the violation is 
+     * pushed up the tree by recoloring or fixed right away by rotating.
+     * 
+     * @param node the node which was just inserted
+     */
+    private void insertFixup(BSTNode<E> node) {
+        while(isRed(node.parent)) {
+            BSTNode<E> grand = grandparent(node);
+            BSTNode<E> unc = uncle(node);
+            if(isRed(unc)) {
+                setRed(node.parent, false);
+                setRed(unc, false);
+                setRed(grand, true);
+                node = grand;
+            }
+            else {
+                if(isLeftChild(node.parent)) {
+                    if(isRightChild(node)) {
+                        node = node.parent;
+                        rotateLeft(node);
+                    }
+                    rotateRight(grand);
+                }
+                else {
+                    if(isLeftChild(node)) {
+                        node = node.parent;
+                        rotateRight(node);
+                    }
+                    rotateLeft(grand);
+                }
+                setRed(node.parent, false);
+                setRed(grand, true);
+            }
+        }
+        setRed(root, false);
+    }
+    
+    /**
+     * Deletes the node which holds the given value. A node with two children 
+     * takes the value of the maximum of its left subtree, which is removed
+     * instead; removing a black node is then made up for by recoloring and
+     * rotating the nodes around it.
+     * 
+     * @param key the value to be deleted
+     */
+    @Override
+    public void delete(E key) {
+        BSTNode<E> node = deletionPoint(key);
+        if(node == null || dropCopy(node))
+            return;
+        if(numChildren(node) == 2) {
+            BSTNode<E> max = maxLeftSubTree(node);
+            replaceData(node, max);
+            node = max;
+        }
+        
+        if(isLeaf(node)) {
+            if(!isRed(node))
+                deleteFixup(node);
+            deleteLeafNode(node);
+        }
+        else {
+            // A black node with a single child; that child has to be red.
+            BSTNode<E> child = (node.left != null) ? node.left : node.right;
+            deleteNodeWith1Child(node);
+            setRed(child, false);
+        }
+    }
+    
+    /**
+     * Restores the red-black properties when the given black node is about to
+     * be removed, or when it has to carry an extra black for a node that was 
+     * removed beneath it. The node is still linked into the tree while this runs.
+     * 
+     * @param node the node carrying the extra black
+     */
+    private void deleteFixup(BSTNode<E> node) {
+        while(node != root && !isRed(node)) {
+            BSTNode<E> par = node.parent;
+            BSTNode<E> sib = sibling(node);
+            if(isLeftChild(node)) {
+                if(isRed(sib)) {
+                    setRed(sib, false);
+                    setRed(par, true);
+                    rotateLeft(par);
+                    sib = par.right;
+                }
+                if(!isRed(sib.left) && !isRed(sib.right)) {
+                    setRed(sib, true);
+                    node = par;
+                }
+                else {
+                    if(!isRed(sib.right)) {
+                        setRed(sib.left, false);
+                        setRed(sib, true);
+                        rotateRight(sib);
+                        sib = par.right;
+                    }
+                    setRed(sib, isRed(par));
+                    setRed(par, false);
+                    setRed(sib.right, false);
+                    rotateLeft(par);
+                    node = root;
+                }
+            }
+            else {
+                if(isRed(sib)) {
+                    setRed(sib, false);
+                    setRed(par, true);
+                    rotateRight(par);
+                    sib = par.left;
+                }
+                if(!isRed(sib.left) && !isRed(sib.right)) {
+                    setRed(sib, true);
+                    node = par;
+                }
+                else {
+                    if(!isRed(sib.left)) {
+                        setRed(sib.right, false);
+                        setRed(sib, true);
+                        rotateLeft(sib);
+                        sib = par.left;
+                    }
+                    setRed(sib, isRed(par));
+                    setRed(par, false);
+                    setRed(sib.left, false);
+                    rotateRight(par);
+                    node = root;
+                }
+            }
+        }
+        setRed(node, false);
+    }
+    
+    /**
+     * Checks whether the given node is red; missing children count as black.
+     * 
+     * @param node the node to be checked, may be {@code null}
+     * @return     true if the given node is red, false otherwise
+     */
+    public boolean isRed(BSTNode<E> node) {
+        return node != null && ((RBNode<E>) node).red;
+    }
+    
+    /**
+     * Colors the given node red or black, ignoring missing nodes.
+     * 
+     * @param node the node to be colored, may be {@code null}
+     * @param red  true to color the node red, false to color it black
+     */
+    private void setRed(BSTNode<E> node, boolean red) {
+        if(node != null)
+            ((RBNode<E>) node).red = red;
+    }
+}
\ No newline at end of file
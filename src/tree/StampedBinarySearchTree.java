@@ -0,0 +1,410 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe wrapper around a {@code BinarySearchTree}, or any of its
+ * balanced variants, for workloads with a single writer and many readers.
+ * Writers take a {@code StampedLock} for writing. Searches first run without
+ * any lock at all on an optimistic stamp, and only when a write happened in
+ * the meantime are they run again while holding the lock for reading; so a
+ * reader only ever waits while a write is actually in progress, and readers
+ * never hold up the writer unless they had to fall back to the read lock.
+ *
+ * A search running on an optimistic stamp may see the tree halfway through a
+ * rotation, which can briefly make its links form a cycle; so every so many
+ * steps it checks that the stamp is still valid, and gives up as soon as it
+ * is not. Whatever a search on a stamp which turns out to be invalid throws,
+ * even an {@code Error} from a comparator given torn values, is dropped and
+ * the search is run again under the read lock. The traversals, which walk the
+ * whole tree, always hold the read lock.
+ *
+ * Once wrapped, a tree must only be used through its wrapper.
+ *
+ * @author Jesus R Mendoza
+ * @param <E> specified object type the wrapped tree holds
+ * @see BinarySearchTree
+ */
+public class StampedBinarySearchTree<E extends Comparable<E>>
+{
+    /**
+     * The number of nodes an optimistic search visits between checks of its
+     * stamp; a power of two.
+     */
+    private static final int VALIDATE_EVERY = 32;
+
+    /**
+     * Thrown by an optimistic search whose stamp is no longer valid; shared,
+     * and without a stack trace, since it is only ever caught right here.
+     */
+    private static final RuntimeException STALE = new RuntimeException(null, null, false, false) {};
+
+    /**
+     * The wrapped tree.
+     */
+    private final BinarySearchTree<E> tree;
+
+    /**
+     * The lock guarding the wrapped tree.
+     */
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * Wraps the given tree, which must not be used directly from now on.
+     *
+     * @param tree the tree to be wrapped
+     */
+    public StampedBinarySearchTree(BinarySearchTree<E> tree) {
+        this.tree = tree;
+    }
+
+    /**
+     * Runs the given search while holding the read lock; the fallback of every
+     * optimistic search whose stamp turned out to be invalid.
+     */
+    private <T> T locked(Supplier<T> read) {
+        long stamp = lock.readLock();
+        try {
+            return read.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Runs the given modification while holding the write lock.
+     */
+    private <T> T write(Supplier<T> modification) {
+        long stamp = lock.writeLock();
+        try {
+            return modification.get();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Gives up on an optimistic search which has visited the given number of
+     * nodes, if it is time to check its stamp and the stamp is no longer valid.
+     */
+    private void checkpoint(long stamp, int steps) {
+        if((steps & (VALIDATE_EVERY - 1)) == 0 && !lock.validate(stamp))
+            throw STALE;
+    }
+
+    /**
+     * Inserts the given value into the wrapped tree; if the given value
+     * already exists a {@code DuplicateItemExceptionBST} is thrown.
+     *
+     * @param key the value to be inserted
+     */
+    public void insert(E key) {
+        write(() -> {
+            tree.insert(key);
+            return null;
+        });
+    }
+
+    /**
+     * Inserts the given value into the wrapped tree, as its {@code add} does.
+     *
+     * @param key the value to be inserted
+     * @return    true if the tree changed
+     */
+    public boolean add(E key) {
+        return write(() -> tree.add(key));
+    }
+
+    /**
+     * Inserts the given value into the wrapped tree, or replaces the equal
+     * value already in it, as its {@code upsert} does.
+     *
+     * @param key the value to be inserted
+     * @return    the value which was replaced, or {@code null} if there was none
+     */
+    public E upsert(E key) {
+        return write(() -> tree.upsert(key));
+    }
+
+    /**
+     * Deletes the given value from the wrapped tree.
+     *
+     * @param key the value to be deleted
+     */
+    public void delete(E key) {
+        write(() -> {
+            tree.delete(key);
+            return null;
+        });
+    }
+
+    /**
+     * Checks whether the given value is in the wrapped tree.
+     *
+     * @param key the value to be searched for
+     * @return    true if the value is in the tree
+     */
+    public boolean find(E key) {
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0L) {
+            try {
+                boolean found = false;
+                BSTNode<E> curr = tree.root;
+                for(int steps = 1; curr != null; steps++) {
+                    checkpoint(stamp, steps);
+                    int cmp = tree.compare(key, curr.getData());
+                    if(cmp == 0) {
+                        found = true;
+                        break;
+                    }
+                    curr = (cmp < 0) ? curr.left : curr.right;
+                }
+                if(lock.validate(stamp))
+                    return found;
+            } catch(Throwable ex) {
+                // Thrown from a torn read, unless the stamp is still valid.
+                if(lock.validate(stamp))
+                    throw ex;
+            }
+        }
+        return locked(() -> tree.find(key));
+    }
+
+    /**
+     * Returns the greatest value of the wrapped tree which is less than or
+     * equal to the given value.
+     *
+     * @param key the value to be looked for
+     * @return    the greatest value at most the given one, or {@code null} if
+     *            there is none
+     */
+    public E floor(E key) {
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0L) {
+            try {
+                E value = bound(key, true, stamp);
+                if(lock.validate(stamp))
+                    return value;
+            } catch(Throwable ex) {
+                if(lock.validate(stamp))
+                    throw ex;
+            }
+        }
+        return locked(() -> tree.floor(key));
+    }
+
+    /**
+     * Returns the smallest value of the wrapped tree which is greater than or
+     * equal to the given value.
+     *
+     * @param key the value to be looked for
+     * @return    the smallest value at least the given one, or {@code null} if
+     *            there is none
+     */
+    public E ceiling(E key) {
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0L) {
+            try {
+                E value = bound(key, false, stamp);
+                if(lock.validate(stamp))
+                    return value;
+            } catch(Throwable ex) {
+                if(lock.validate(stamp))
+                    throw ex;
+            }
+        }
+        return locked(() -> tree.ceiling(key));
+    }
+
+    /**
+     * Finds the floor or the ceiling of the given value in a single descent on
+     * an optimistic stamp.
+     */
+    private E bound(E key, boolean floor, long stamp) {
+        BSTNode<E> curr = tree.root;
+        E best = null;
+        for(int steps = 1; curr != null; steps++) {
+            checkpoint(stamp, steps);
+            E data = curr.getData();
+            int cmp = tree.compare(key, data);
+            if(cmp == 0)
+                return data;
+            if((cmp > 0) == floor) {
+                best = data;
+                curr = floor ? curr.right : curr.left;
+            }
+            else
+                curr = floor ? curr.left : curr.right;
+        }
+        return best;
+    }
+
+    /**
+     * Returns the smallest value of the wrapped tree.
+     *
+     * @return the smallest value, or {@code null} if the tree is empty
+     */
+    public E min() {
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0L) {
+            try {
+                E value = edge(true, stamp);
+                if(lock.validate(stamp))
+                    return value;
+            } catch(Throwable ex) {
+                if(lock.validate(stamp))
+                    throw ex;
+            }
+        }
+        return locked(tree::min);
+    }
+
+    /**
+     * Returns the greatest value of the wrapped tree.
+     *
+     * @return the greatest value, or {@code null} if the tree is empty
+     */
+    public E max() {
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0L) {
+            try {
+                E value = edge(false, stamp);
+                if(lock.validate(stamp))
+                    return value;
+            } catch(Throwable ex) {
+                if(lock.validate(stamp))
+                    throw ex;
+            }
+        }
+        return locked(tree::max);
+    }
+
+    /**
+     * Walks down the leftmost or rightmost path on an optimistic stamp.
+     */
+    private E edge(boolean leftmost, long stamp) {
+        BSTNode<E> curr = tree.root;
+        E data = null;
+        for(int steps = 1; curr != null; steps++) {
+            checkpoint(stamp, steps);
+            data = curr.getData();
+            curr = leftmost ? curr.left : curr.right;
+        }
+        return data;
+    }
+
+    /**
+     * Returns the number of values in the wrapped tree.
+     *
+     * @return the number of values in the tree
+     */
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0L) {
+            try {
+                int size = tree.size();
+                if(lock.validate(stamp))
+                    return size;
+            } catch(Throwable ex) {
+                if(lock.validate(stamp))
+                    throw ex;
+            }
+        }
+        return locked(tree::size);
+    }
+
+    /**
+     * Checks whether the wrapped tree is empty.
+     *
+     * @return true if the tree holds no values
+     */
+    public boolean isEmpty() {
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0L) {
+            try {
+                boolean empty = tree.isEmpty();
+                if(lock.validate(stamp))
+                    return empty;
+            } catch(Throwable ex) {
+                if(lock.validate(stamp))
+                    throw ex;
+            }
+        }
+        return locked(tree::isEmpty);
+    }
+
+    /**
+     * Returns the value of the given rank in the wrapped tree, under the read
+     * lock.
+     *
+     * @param k the rank of the value, from 0
+     * @return  the k-th smallest value
+     * @throws  IndexOutOfBoundsException if k is not a valid rank
+     */
+    public E select(int k) {
+        return locked(() -> tree.select(k));
+    }
+
+    /**
+     * Returns the number of values of the wrapped tree which are less than the
+     * given value, under the read lock.
+     *
+     * @param key the value to be ranked
+     * @return    the number of smaller values
+     */
+    public int rank(E key) {
+        return locked(() -> tree.rank(key));
+    }
+
+    /**
+     * Returns the values of the wrapped tree in {@code preorder}, copied out
+     * under the read lock.
+     *
+     * @return the values in preorder
+     */
+    public ArrayList<E> preorder() {
+        return locked(() -> values(tree.preorder()));
+    }
+
+    /**
+     * Returns the values of the wrapped tree in {@code inorder}, copied out
+     * under the read lock.
+     *
+     * @return the values in inorder
+     */
+    public ArrayList<E> inorder() {
+        return locked(() -> values(tree.inorder()));
+    }
+
+    /**
+     * Returns the values of the wrapped tree in {@code postorder}, copied out
+     * under the read lock.
+     *
+     * @return the values in postorder
+     */
+    public ArrayList<E> postorder() {
+        return locked(() -> values(tree.postorder()));
+    }
+
+    /**
+     * Returns the values of the wrapped tree in {@code breadthfirst} order,
+     * copied out under the read lock.
+     *
+     * @return the values in breadthfirst order
+     */
+    public ArrayList<E> breadthfirst() {
+        return locked(() -> values(tree.breadthfirst()));
+    }
+
+    /**
+     * Copies the values out of the given nodes, so no node escapes the lock.
+     */
+    private ArrayList<E> values(ArrayList<BSTNode<E>> nodes) {
+        ArrayList<E> arr = new ArrayList<>(nodes.size());
+        for(BSTNode<E> node : nodes)
+            arr.add(node.getData());
+        return arr;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,302 @@
+package tree;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import stack.ArrayQueue;
+import stack.Stack;
+
+/**
+ * The fork/join tasks behind the parallel operations of {@code BinarySearchTree}.
+ * A task only splits its work at a node whose two subtrees each hold at least a
+ * given number of nodes, read from the sizes the nodes keep: the left subtree is
+ * forked off as a new task while the current task carries on with the right 
+ * one, and the two results are combined once both are done. Where only one 
+ * side is that large, the small side and the node are handled on the spot and
+ * the task walks on down the large side, so a skewed tree neither forks tasks
+ * for near empty subtrees nor leaves its heavy side to a single thread. Every
+ * subtree handled sequentially is walked without recursion, so a degenerate 
+ * tree cannot overflow the stack.
+ * 
+ * @author Jesus R Mendoza
+ * @see BinarySearchTree
+ */
+final class SubtreeTasks
+{
+    private SubtreeTasks() { }
+    
+    /**
+     * The number of nodes a subtree needs before it is worth a task of its 
+     * own, unless told otherwise.
+     */
+    static final int DEFAULT_FORK_THRESHOLD = 1 << 12;
+    
+    /**
+     * Checks whether the given subtree is large enough to be split.
+     * 
+     * @param node      the root of the subtree, may be {@code null}
+     * @param threshold the fewest nodes a subtree split over may have
+     * @return          true if the subtree holds at least that many nodes
+     */
+    static <E extends Comparable<E>> boolean heavy(BSTNode<E> node, int threshold) {
+        return node != null && node.size >= threshold;
+    }
+    
+    /**
+     * Counts the nodes of the given subtree.
+     */
+    static final class Size<E extends Comparable<E>> extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+        
+        private final BSTNode<E> node;
+        private final int threshold;
+        
+        Size(BSTNode<E> node, int threshold) {
+            this.node = node;
+            this.threshold = threshold;
+        }
+        
+        @Override
+        protected Integer compute() {
+            int n = 0;
+            BSTNode<E> curr = node;
+            while(heavy(curr, threshold)) {
+                if(heavy(curr.left, threshold) && heavy(curr.right, threshold)) {
+                    Size<E> left = new Size<>(curr.left, threshold);
+                    left.fork();
+                    int right = new Size<>(curr.right, threshold).compute();
+                    return n + left.join() + 1 + right;
+                }
+                if(heavy(curr.left, threshold)) {
+                    n += 1 + count(curr.right);
+                    curr = curr.left;
+                }
+                else {
+                    n += 1 + count(curr.left);
+                    curr = curr.right;
+                }
+            }
+            return n + count(curr);
+        }
+    }
+    
+    /**
+     * Calculates the height of the given subtree, -1 if it is empty.
+     */
+    static final class Height<E extends Comparable<E>> extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+        
+        private final BSTNode<E> node;
+        private final int threshold;
+        
+        Height(BSTNode<E> node, int threshold) {
+            this.node = node;
+            this.threshold = threshold;
+        }
+        
+        @Override
+        protected Integer compute() {
+            int h = -1;
+            int depth = 0;
+            BSTNode<E> curr = node;
+            while(heavy(curr, threshold)) {
+                if(heavy(curr.left, threshold) && heavy(curr.right, threshold)) {
+                    Height<E> left = new Height<>(curr.left, threshold);
+                    left.fork();
+                    int right = new Height<>(curr.right, threshold).compute();
+                    return Math.max(h, depth + 1 + Math.max(left.join(), right));
+                }
+                BSTNode<E> small = heavy(curr.left, threshold) ? curr.right : curr.left;
+                h = Math.max(h, depth + 1 + height(small));
+                curr = (small == curr.left) ? curr.right : curr.left;
+                depth++;
+            }
+            return Math.max(h, depth + height(curr));
+        }
+    }
+    
+    /**
+     * Folds the values of the given subtree, in order, into a single result.
+     * Walking down one side leaves the node and the other side to be folded on
+     * the spot; what lies before the path is collected in a prefix and what 
+     * lies after it in a suffix, and the two are combined with the rest at the
+     * end.
+     */
+    static final class Reduce<E extends Comparable<E>, R> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+        
+        private final BSTNode<E> node;
+        private final int threshold;
+        private final R identity;
+        private final BiFunction<R, ? super E, R> accumulator;
+        private final BinaryOperator<R> combiner;
+        
+        Reduce(BSTNode<E> node, int threshold, R identity, 
+               BiFunction<R, ? super E, R> accumulator, BinaryOperator<R> combiner) {
+            this.node = node;
+            this.threshold = threshold;
+            this.identity = identity;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+        
+        @Override
+        protected R compute() {
+            R prefix = identity;
+            R suffix = identity;
+            R middle;
+            BSTNode<E> curr = node;
+            while(true) {
+                if(!heavy(curr, threshold)) {
+                    middle = reduce(curr, identity, accumulator);
+                    break;
+                }
+                if(heavy(curr.left, threshold) && heavy(curr.right, threshold)) {
+                    Reduce<E, R> left = new Reduce<>(curr.left, threshold, identity, accumulator, combiner);
+                    left.fork();
+                    R right = new Reduce<>(curr.right, threshold, identity, accumulator, combiner).compute();
+                    middle = combiner.apply(accumulator.apply(left.join(), curr.getData()), right);
+                    break;
+                }
+                if(heavy(curr.left, threshold)) {
+                    R after = reduce(curr.right, accumulator.apply(identity, curr.getData()), accumulator);
+                    suffix = combiner.apply(after, suffix);
+                    curr = curr.left;
+                }
+                else {
+                    R before = accumulator.apply(reduce(curr.left, identity, accumulator), curr.getData());
+                    prefix = combiner.apply(prefix, before);
+                    curr = curr.right;
+                }
+            }
+            return combiner.apply(combiner.apply(prefix, middle), suffix);
+        }
+    }
+    
+    /**
+     * Performs an action on every value of the given subtree, in no particular
+     * order across tasks.
+     */
+    static final class ForEach<E extends Comparable<E>> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final BSTNode<E> node;
+        private final int threshold;
+        private final Consumer<? super E> action;
+        
+        ForEach(BSTNode<E> node, int threshold, Consumer<? super E> action) {
+            this.node = node;
+            this.threshold = threshold;
+            this.action = action;
+        }
+        
+        @Override
+        protected void compute() {
+            BSTNode<E> curr = node;
+            while(heavy(curr, threshold)) {
+                if(heavy(curr.left, threshold) && heavy(curr.right, threshold)) {
+                    ForEach<E> left = new ForEach<>(curr.left, threshold, action);
+                    left.fork();
+                    action.accept(curr.getData());
+                    new ForEach<>(curr.right, threshold, action).compute();
+                    left.join();
+                    return;
+                }
+                BSTNode<E> small = heavy(curr.left, threshold) ? curr.right : curr.left;
+                forEach(small, action);
+                action.accept(curr.getData());
+                curr = (small == curr.left) ? curr.right : curr.left;
+            }
+            forEach(curr, action);
+        }
+    }
+    
+    /**
+     * Performs an action on every value of the given subtree sequentially.
+     * 
+     * @param node   the root of the subtree, may be {@code null}
+     * @param action the action to be performed on each value
+     */
+    static <E extends Comparable<E>> void forEach(BSTNode<E> node, Consumer<? super E> action) {
+        reduce(node, null, (ignored, data) -> {
+            action.accept(data);
+            return null;
+        });
+    }
+    
+    /**
+     * Counts the nodes of the given subtree sequentially.
+     * 
+     * @param node the root of the subtree, may be {@code null}
+     * @return     the number of nodes in the subtree
+     */
+    static <E extends Comparable<E>> int count(BSTNode<E> node) {
+        int n = 0;
+        Stack<BSTNode<E>> stk = new Stack<>();
+        if(node != null)
+            stk.push(node);
+        while(!stk.isEmpty()) {
+            BSTNode<E> curr = stk.pop();
+            n++;
+            if(curr.right != null)
+                stk.push(curr.right);
+            if(curr.left != null)
+                stk.push(curr.left);
+        }
+        return n;
+    }
+    
+    /**
+     * Calculates the height of the given subtree sequentially, by counting its
+     * levels one at a time.
+     * 
+     * @param node the root of the subtree, may be {@code null}
+     * @return     the height of the subtree, or -1 if it is empty
+     */
+    static <E extends Comparable<E>> int height(BSTNode<E> node) {
+        int h = -1;
+        ArrayQueue<BSTNode<E>> q = new ArrayQueue<>();
+        if(node != null)
+            q.enqueue(node);
+        while(!q.isEmpty()) {
+            h++;
+            for(int width = q.size(); width > 0; width--) {
+                BSTNode<E> curr = q.dequeue();
+                if(curr.left != null)
+                    q.enqueue(curr.left);
+                if(curr.right != null)
+                    q.enqueue(curr.right);
+            }
+        }
+        return h;
+    }
+    
+    /**
+     * Folds the values of the given subtree sequentially, in order.
+     * 
+     * @param node        the root of the subtree, may be {@code null}
+     * @param identity    the result to start folding from
+     * @param accumulator folds a single value into the result
+     * @return            the folded result
+     */
+    static <E extends Comparable<E>, R> R reduce(BSTNode<E> node, R identity, 
+                                                  BiFunction<R, ? super E, R> accumulator) {
+        R result = identity;
+        Stack<BSTNode<E>> stk = new Stack<>();
+        BSTNode<E> curr = node;
+        while(!stk.isEmpty() || curr != null) {
+            if(curr != null) {
+                stk.push(curr);
+                curr = curr.left;
+            }
+            else {
+                curr = stk.pop();
+                result = accumulator.apply(result, curr.getData());
+                curr = curr.right;
+            }
+        }
+        return result;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+package stack;
+
+/**
+ * A Queue data structure backed by a circular array. The front of the queue 
+ * wraps around the end of the array instead of being shifted down on every 
+ * dequeue, so both enqueue and dequeue take constant time; the array doubles 
+ * in size whenever it fills up.
+ * 
+ * @author Code adapted from the book: Data Structures and Algoriths by Goodrich
+ * @param <E> the specified type which this ArrayQueue will hold
+ */
+public class ArrayQueue<E> {
+    
+    /**
+     * The number of elements a queue has room for before it first grows.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+    
+    /**
+     * The circular array holding the elements of this queue.
+     */
+    private E[] data;
+    
+    /**
+     * The index of the element at the front of the queue.
+     */
+    private int front = 0;
+    
+    /**
+     * The number of elements in this queue.
+     */
+    private int size = 0;
+    
+    /**
+     * Constructs an empty ArrayQueue.
+     */
+    public ArrayQueue() { this(DEFAULT_CAPACITY); }
+    
+    /**
+     * Constructs an empty ArrayQueue with room for the given number of elements
+     * before it has to grow.
+     * 
+     * @param capacity the number of elements to make room for
+     */
+    @SuppressWarnings("unchecked")
+    public ArrayQueue(int capacity) { data = (E[]) new Object[Math.max(capacity, 1)]; }
+    
+    /**
+     * Returns how many elements this queue contains.
+     * 
+     * @return the number of elements in this queue
+     */
+    public int size() { return size; }
+    
+    /**
+     * Checks whether the queue is empty.
+     * 
+     * @return whether the queue is empty.
+     */
+    public boolean isEmpty() { return size == 0; }
+    
+    /**
+     * Adds an element to the back of the queue.
+     * 
+     * @param elem the element to be added
+     */
+    public void enqueue(E elem) {
+        if(size == data.length)
+            grow();
+        data[(front + size) % data.length] = elem;
+        size++;
+    }
+    
+    /**
+     * Returns the front element without removing it from the Queue.
+     * 
+     * @return the front element, or null if the queue is empty
+     */
+    public E first() {
+        if(isEmpty()) return null;
+        return data[front];
+    }
+    
+    /**
+     * Removes and returns the front element of the Queue.
+     * 
+     * @return the front element, or null if the queue is empty
+     */
+    public E dequeue() {
+        if(isEmpty()) return null;
+        E answer = data[front];
+        data[front] = null;
+        front = (front + 1) % data.length;
+        size--;
+        return answer;
+    }
+    
+    /**
+     * Doubles the length of the array, unwrapping the elements so the front of
+     * the queue is at index 0 again.
+     */
+    @SuppressWarnings("unchecked")
+    private void grow() {
+        E[] bigger = (E[]) new Object[data.length * 2];
+        for(int i = 0; i < size; i++)
+            bigger[i] = data[(front + i) % data.length];
+        data = bigger;
+        front = 0;
+    }
+}
\ No newline at end of file
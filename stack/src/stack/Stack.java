@@ -1,7 +1,9 @@
 package stack;
 
 /**
- * A Stack data structure.
+ * A Stack data structure backed by an array, which doubles in size whenever it 
+ * fills up; pushing an element only allocates when the array has to grow, so a
+ * stack that has been sized for its deepest use never allocates at all.
  * 
  * @author Code take from the book: Data Structures and Algoriths by Goodrich
  * @param <E> the specified type which this Stack will hold
@@ -9,47 +11,89 @@ package stack;
 public class Stack<E> {
     
     /**
-     * The underlying linked list that will be used for this Stack.
+     * The number of elements a stack has room for before it first grows.
      */
-    private SinglyLinkedList<E> list = new SinglyLinkedList<>();
+    private static final int DEFAULT_CAPACITY = 16;
+    
+    /**
+     * The underlying array that will be used for this Stack; the top element 
+     * is at index {@code size - 1}.
+     */
+    private E[] data;
+    
+    /**
+     * The number of elements in this stack.
+     */
+    private int size = 0;
     
     /**
      * Constructs an empty Stack.
      */
-    public Stack() {}
+    public Stack() { this(DEFAULT_CAPACITY); }
+    
+    /**
+     * Constructs an empty Stack with room for the given number of elements
+     * before it has to grow.
+     * 
+     * @param capacity the number of elements to make room for
+     */
+    @SuppressWarnings("unchecked")
+    public Stack(int capacity) { data = (E[]) new Object[Math.max(capacity, 1)]; }
     
     /**
      * Returns how many elements this stack contains.
      * 
      * @return the number of elements in this stack
      */
-    public int size() { return list.size(); }
+    public int size() { return size; }
     
     /**
      * Checks whether the stack is empty.
      * 
      * @return whether the list is empty.
      */
-    public boolean isEmpty() { return list.isEmpty(); }
+    public boolean isEmpty() { return size == 0; }
     
     /**
      * Adds an element to the top of the stack.
      * 
      * @param elem the element to be added
      */
-    public void push(E elem) { list.addFirst(elem); }
+    public void push(E elem) {
+        if(size == data.length)
+            grow();
+        data[size++] = elem;
+    }
     
     /**
      * Returns the top element without removing it from the Stack.
      * 
      * @return the top element without removing it from the Stack.
      */
-    public E top() { return list.first(); }
+    public E top() {
+        if(isEmpty()) return null;
+        return data[size - 1];
+    }
     
     /**
      * Removes and returns the top element of the Stack.
      * 
      * @return the top element
      */
-    public E pop() { return list.removeFirst(); }
+    public E pop() {
+        if(isEmpty()) return null;
+        E answer = data[--size];
+        data[size] = null;
+        return answer;
+    }
+    
+    /**
+     * Doubles the length of the underlying array.
+     */
+    @SuppressWarnings("unchecked")
+    private void grow() {
+        E[] bigger = (E[]) new Object[data.length * 2];
+        System.arraycopy(data, 0, bigger, 0, size);
+        data = bigger;
+    }
 }
\ No newline at end of file